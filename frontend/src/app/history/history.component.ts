@@ -12,15 +12,21 @@ import { GameService } from '../services/game.service';
 })
 export class HistoryComponent implements OnInit {
   games: any[] = [];
+  nextCursor: string | null = null;
   showDeleteModal: boolean = false;
   gameToDelete: number | null = null;
 
   constructor(private router: Router, private gameService: GameService) {}
 
   ngOnInit() {
-    this.gameService.getAllGames().subscribe({
-      next: (games) => {
-        this.games = games;
+    this.loadGames();
+  }
+
+  loadGames() {
+    this.gameService.getGames(this.nextCursor).subscribe({
+      next: (page) => {
+        this.games = [...this.games, ...page.games];
+        this.nextCursor = page.nextCursor;
       },
       error: (err) => {
         console.error('Failed to load games:', err);
@@ -42,6 +42,21 @@ interface Game {
   turns: Turn[];
 }
 
+interface GameSummary {
+  id: number;
+  name: string;
+  startTimestamp: string;
+  endTimestamp?: string;
+  playerNames: string[];
+  winner?: string;
+  rollCount: number;
+}
+
+interface GamePage {
+  games: GameSummary[];
+  nextCursor: string | null;
+}
+
 interface PlayerStats {
   totalPoints: number;
   averagePoints: number | null;
@@ -74,8 +89,9 @@ export class GameService {
     return this.http.put<Game>(`${this.apiUrl}/${gameId}/end`, endGameData);
   }
 
-  getAllGames(): Observable<Game[]> {
-    return this.http.get<Game[]>(this.apiUrl);
+  getGames(cursor?: string | null): Observable<GamePage> {
+    const params: { [param: string]: string } = cursor ? { cursor } : {};
+    return this.http.get<GamePage>(this.apiUrl, { params });
   }
 
   getGameById(id: number): Observable<Game> {
@@ -0,0 +1,86 @@
+package com.fdifrison.catan.dicecounter.benchmark;
+
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of latency isolation: one thread records turns while a crowd of threads runs analytics reads against the
+ * same database. Compare the sampled {@code recordTurn} percentiles with {@code admission} on and off, and against the
+ * uncontended {@link GameServiceBenchmark#recordTurn}. The crowd size is changed with JMH's {@code -tg}, e.g.
+ * {@code -tg 1,32}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class AdmissionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ContendedDatabase extends SeededDatabase {
+
+        @Param({"true", "false"})
+        public boolean admission;
+
+        @Override
+        protected List<String> extraArguments() {
+            return List.of("--app.admission.enabled=" + admission);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LiveGame {
+
+        GameDTO game;
+        int turnNumber;
+        final Random random = new Random(7);
+
+        @Setup(Level.Trial)
+        public void create(ContendedDatabase database) {
+            game = database.createGame("Contended benchmark game " + Thread.currentThread().getName());
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public TurnDTO recordTurn(ContendedDatabase database, LiveGame liveGame) {
+        return database.gameService.recordTurn(liveGame.game.id(),
+                SeededDatabase.turn(liveGame.game, ++liveGame.turnNumber, liveGame.random));
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(16)
+    public Object analytics(ContendedDatabase database) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (random.nextInt(3)) {
+            case 0 -> database.gameService.getPlayerStats(randomOf(database.globalPlayerIds, random));
+            case 1 -> database.gameService.getTurnTimes(randomOf(database.gameIds, random));
+            default -> database.gameService.getGames(null, 500);
+        };
+    }
+
+    private static Integer randomOf(List<Integer> ids, ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,166 @@
+package com.fdifrison.catan.dicecounter.benchmark;
+
+import com.fdifrison.catan.dicecounter.domain.Game;
+import com.fdifrison.catan.dicecounter.domain.GlobalPlayer;
+import com.fdifrison.catan.dicecounter.domain.Player;
+import com.fdifrison.catan.dicecounter.domain.Roll;
+import com.fdifrison.catan.dicecounter.domain.Turn;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.mapper.GameMapper;
+import com.fdifrison.catan.dicecounter.service.GlobalPlayerCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Maps an in-memory game graph of {@code turns} turns (each with a roll) to its DTO, without any database access. The
+ * global players are served by a {@link GlobalPlayerCache} stub holding the game's players.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameMapperBenchmark {
+
+    private static final int PLAYERS = 4;
+
+    @Param({"100", "10000"})
+    public int turns;
+
+    private AnnotationConfigApplicationContext context;
+    private GameMapper gameMapper;
+    private Game game;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = buildGame(turns);
+        context = new AnnotationConfigApplicationContext();
+        context.scan(GameMapper.class.getPackageName());
+        context.getBeanFactory().registerSingleton("globalPlayerCache", new StubGlobalPlayerCache(game));
+        context.refresh();
+        gameMapper = context.getBean(GameMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public GameDTO toDto() {
+        return gameMapper.toDto(game);
+    }
+
+    /**
+     * Serves the global players of the game from memory, registered as a singleton: the real cache is league scoped
+     * and loads from the database.
+     */
+    private static final class StubGlobalPlayerCache extends GlobalPlayerCache {
+
+        private final Map<Integer, GlobalPlayerDTO> players;
+
+        private StubGlobalPlayerCache(Game game) {
+            super(null, null);
+            this.players = game.getPlayers().stream()
+                    .map(Player::getGlobalPlayer)
+                    .collect(Collectors.toMap(GlobalPlayer::getId,
+                            globalPlayer -> new GlobalPlayerDTO(globalPlayer.getId(), globalPlayer.getName(),
+                                    globalPlayer.getEmail())));
+        }
+
+        @Override
+        public List<GlobalPlayerDTO> getAll() {
+            return List.copyOf(players.values());
+        }
+
+        @Override
+        public Optional<GlobalPlayerDTO> get(Integer id) {
+            return Optional.ofNullable(players.get(id));
+        }
+
+        @Override
+        public Map<Integer, GlobalPlayerDTO> getAll(Collection<Integer> ids) {
+            return ids.stream()
+                    .filter(players::containsKey)
+                    .distinct()
+                    .collect(Collectors.toMap(id -> id, players::get));
+        }
+    }
+
+    private static Game buildGame(int turnCount) {
+        Random random = new Random(42);
+        Instant start = Instant.parse("2025-01-01T18:00:00Z");
+        Game game = new Game();
+        game.setId(1);
+        game.setName("Mapper benchmark");
+        game.setStartTimestamp(start);
+        game.setEndTimestamp(start.plusSeconds(turnCount * 90L));
+
+        List<Player> players = new ArrayList<>();
+        for (int i = 1; i <= PLAYERS; i++) {
+            GlobalPlayer globalPlayer = new GlobalPlayer();
+            globalPlayer.setId(i);
+            globalPlayer.setName("Player " + i);
+            globalPlayer.setEmail("player" + i + "@example.com");
+            Player player = new Player();
+            player.setId(i);
+            player.setGame(game);
+            player.setGlobalPlayer(globalPlayer);
+            player.setOrder(i);
+            player.setColor("color" + i);
+            player.setRank(i);
+            player.setPoints(10 - i);
+            players.add(player);
+        }
+
+        List<Turn> turns = new ArrayList<>(turnCount);
+        List<Roll> rolls = new ArrayList<>(turnCount);
+        for (int i = 1; i <= turnCount; i++) {
+            Player player = players.get((i - 1) % PLAYERS);
+            Turn turn = new Turn();
+            turn.setId(i);
+            turn.setGame(game);
+            turn.setPlayer(player);
+            turn.setTurnNumber(i);
+            turn.setStartTimestamp(start.plusSeconds(i * 90L));
+            turn.setEndTimestamp(start.plusSeconds(i * 90L + 30 + random.nextInt(60)));
+            turns.add(turn);
+
+            Roll roll = new Roll();
+            roll.setId(i);
+            roll.setGame(game);
+            roll.setTurn(turn);
+            roll.setNumber(2 + random.nextInt(6) + random.nextInt(6));
+            roll.setPlayerIndex(player.getOrder() - 1);
+            rolls.add(roll);
+        }
+        game.setPlayers(players);
+        game.setTurns(turns);
+        game.setRolls(rolls);
+        return game;
+    }
+}
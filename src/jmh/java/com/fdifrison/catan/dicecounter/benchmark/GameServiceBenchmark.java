@@ -0,0 +1,89 @@
+package com.fdifrison.catan.dicecounter.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GamePageDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerStatsDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameServiceBenchmark {
+
+    /**
+     * A game that stays live for the whole trial, so every recorded turn takes the session-cache path.
+     */
+    @State(Scope.Thread)
+    public static class LiveGame {
+
+        GameDTO game;
+        int turnNumber;
+        final Random random = new Random(7);
+
+        @Setup(Level.Trial)
+        public void create(SeededDatabase database) {
+            game = database.createGame("Live benchmark game " + Thread.currentThread().getName());
+        }
+    }
+
+    @Benchmark
+    public PlayerStatsDTO getPlayerStats(SeededDatabase database) {
+        return database.gameService.getPlayerStats(randomOf(database.globalPlayerIds));
+    }
+
+    @Benchmark
+    public String findSlowestPlayer(SeededDatabase database) {
+        return database.gameService.findSlowestPlayer(randomOf(database.gameIds));
+    }
+
+    /**
+     * {@code GET /api/games/{id}} up to the response bytes, as objects and in the columnar form.
+     */
+    @Benchmark
+    public byte[] getGameByIdAsJson(SeededDatabase database) throws JsonProcessingException {
+        return database.objectMapper.writeValueAsBytes(
+                database.gameService.getGameById(randomOf(database.gameIds)).orElseThrow());
+    }
+
+    @Benchmark
+    public byte[] getCompactGameByIdAsJson(SeededDatabase database) throws JsonProcessingException {
+        return database.objectMapper.writeValueAsBytes(
+                database.gameService.getCompactGameById(randomOf(database.gameIds)).orElseThrow());
+    }
+
+    @Benchmark
+    public GamePageDTO getGames(SeededDatabase database) {
+        return database.gameService.getGames(null, 50);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public TurnDTO recordTurn(SeededDatabase database, LiveGame liveGame) {
+        return database.gameService.recordTurn(liveGame.game.id(),
+                SeededDatabase.turn(liveGame.game, ++liveGame.turnNumber, liveGame.random));
+    }
+
+    private static Integer randomOf(List<Integer> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,133 @@
+package com.fdifrison.catan.dicecounter.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdifrison.catan.dicecounter.DiceCounterApplication;
+import com.fdifrison.catan.dicecounter.dto.EndGameDTO;
+import com.fdifrison.catan.dicecounter.dto.GameCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerEndDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnBatchCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnCreateDTO;
+import com.fdifrison.catan.dicecounter.service.GameService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Starts the application without the web layer on a temporary SQLite file and fills it through {@link GameService}
+ * with {@code games} finished games of {@code turnsPerGame} turns each, so the aggregates match real usage.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    private static final String[] COLORS = {"red", "blue", "white", "orange"};
+    private static final int PLAYERS_PER_GAME = 4;
+    private static final int MAX_BATCH_SIZE = 500;
+
+    @Param("200")
+    public int games;
+
+    @Param("60")
+    public int turnsPerGame;
+
+    ConfigurableApplicationContext context;
+    GameService gameService;
+    ObjectMapper objectMapper;
+    final List<Integer> gameIds = new ArrayList<>();
+    final List<Integer> globalPlayerIds = new ArrayList<>();
+
+    private Path databaseFile;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        databaseFile = Files.createTempFile("dice-counter-benchmark", ".db");
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:sqlite:" + databaseFile,
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        arguments.addAll(extraArguments());
+        context = new SpringApplicationBuilder(DiceCounterApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.toArray(String[]::new));
+        gameService = context.getBean(GameService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        for (int i = gameService.getAllGlobalPlayers().size(); i < PLAYERS_PER_GAME; i++) {
+            gameService.createGlobalPlayer(new GlobalPlayerDTO(null, "Benchmark " + i, "benchmark" + i + "@example.com"));
+        }
+        gameService.getAllGlobalPlayers().forEach(globalPlayer -> globalPlayerIds.add(globalPlayer.id()));
+
+        Random random = new Random(42);
+        for (int i = 0; i < games; i++) {
+            GameDTO game = createGame("Benchmark game " + i);
+            recordTurns(game, turnsPerGame, random);
+            List<PlayerEndDTO> ranks = new ArrayList<>();
+            for (PlayerDTO player : game.players()) {
+                ranks.add(new PlayerEndDTO(player.id(), player.order(), 10 - player.order()));
+            }
+            gameService.endGame(game.id(), new EndGameDTO(ranks));
+            gameIds.add(game.id());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            Files.deleteIfExists(Path.of(databaseFile + suffix));
+        }
+    }
+
+    /**
+     * Application arguments added by subclasses that benchmark a configuration.
+     */
+    protected List<String> extraArguments() {
+        return List.of();
+    }
+
+    GameDTO createGame(String name) {
+        List<PlayerCreateDTO> players = new ArrayList<>();
+        for (int order = 1; order <= PLAYERS_PER_GAME; order++) {
+            int globalPlayerId = globalPlayerIds.get((order - 1) % globalPlayerIds.size());
+            players.add(new PlayerCreateDTO(globalPlayerId, COLORS[order - 1], order));
+        }
+        return gameService.createGame(new GameCreateDTO(name, players));
+    }
+
+    static TurnCreateDTO turn(GameDTO game, int turnNumber, Random random) {
+        PlayerDTO player = game.players().get((turnNumber - 1) % game.players().size());
+        Instant start = game.startTimestamp().plusSeconds(turnNumber * 90L);
+        Instant end = start.plusSeconds(30 + random.nextInt(120));
+        int rollNumber = 2 + random.nextInt(6) + random.nextInt(6);
+        return new TurnCreateDTO(player.id(), turnNumber, start, end, rollNumber);
+    }
+
+    private void recordTurns(GameDTO game, int turns, Random random) {
+        List<TurnCreateDTO> batch = new ArrayList<>();
+        for (int turnNumber = 1; turnNumber <= turns; turnNumber++) {
+            batch.add(turn(game, turnNumber, random));
+            if (batch.size() == MAX_BATCH_SIZE || turnNumber == turns) {
+                gameService.recordTurns(game.id(), new TurnBatchCreateDTO(batch));
+                batch = new ArrayList<>();
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.fdifrison.catan.dicecounter.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turn timestamps stored as ISO-8601 text, as before the epoch-timestamps changeset, against epoch milliseconds, on a
+ * generated turn table of {@code games * turnsPerGame} rows. Plain JDBC on a file of its own, so only the storage and
+ * the conversion are measured:
+ * <ul>
+ * <li>{@code loadTurns} reads every turn and converts both timestamps to {@link Instant}s, as the entity converter
+ * does;</li>
+ * <li>{@code durationTotals} totals the turn durations per player, in Java for text and with
+ * {@code SUM(end_timestamp - start_timestamp)} in SQL for epoch millis.</li>
+ * </ul>
+ * The size of each database file is printed after it is generated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class TimestampStorageBenchmark {
+
+    private static final int PLAYERS_PER_GAME = 4;
+
+    @Param({"text", "epoch"})
+    public String storage;
+
+    @Param("2000")
+    public int games;
+
+    @Param("100")
+    public int turnsPerGame;
+
+    private Path databaseFile;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("timestamp-storage-benchmark", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+        String type = isText() ? "TEXT" : "INTEGER";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE turn (id INTEGER PRIMARY KEY, game_id INTEGER NOT NULL, "
+                    + "player_id INTEGER NOT NULL, turn_number INTEGER NOT NULL, "
+                    + "start_timestamp " + type + " NOT NULL, end_timestamp " + type + " NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        Random random = new Random(42);
+        Instant gameStart = Instant.parse("2025-01-01T18:00:00.123Z");
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO turn VALUES (?, ?, ?, ?, ?, ?)")) {
+            int id = 0;
+            for (int game = 1; game <= games; game++) {
+                for (int turnNumber = 1; turnNumber <= turnsPerGame; turnNumber++) {
+                    Instant start = gameStart.plusMillis(turnNumber * 90_000L + random.nextInt(1000));
+                    Instant end = start.plusMillis(30_000 + random.nextInt(120_000));
+                    insert.setInt(1, ++id);
+                    insert.setInt(2, game);
+                    insert.setInt(3, (game - 1) * PLAYERS_PER_GAME + (turnNumber - 1) % PLAYERS_PER_GAME + 1);
+                    insert.setInt(4, turnNumber);
+                    if (isText()) {
+                        insert.setString(5, start.toString());
+                        insert.setString(6, end.toString());
+                    } else {
+                        insert.setLong(5, start.toEpochMilli());
+                        insert.setLong(6, end.toEpochMilli());
+                    }
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                gameStart = gameStart.plus(Duration.ofHours(3));
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM");
+        }
+        System.out.printf("%n%s storage: %d turns, %.1f MB%n", storage, games * turnsPerGame,
+                Files.size(databaseFile) / 1024.0 / 1024.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException, SQLException {
+        connection.close();
+        Files.deleteIfExists(databaseFile);
+    }
+
+    @Benchmark
+    public long loadTurns() throws SQLException {
+        long checksum = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT start_timestamp, end_timestamp FROM turn")) {
+            while (rs.next()) {
+                Instant start = isText() ? Instant.parse(rs.getString(1)) : Instant.ofEpochMilli(rs.getLong(1));
+                Instant end = isText() ? Instant.parse(rs.getString(2)) : Instant.ofEpochMilli(rs.getLong(2));
+                checksum += end.toEpochMilli() - start.toEpochMilli();
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public Map<Integer, Long> durationTotals() throws SQLException {
+        Map<Integer, Long> totals = new HashMap<>();
+        if (isText()) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT player_id, start_timestamp, end_timestamp FROM turn")) {
+                while (rs.next()) {
+                    long duration = Duration.between(Instant.parse(rs.getString(2)), Instant.parse(rs.getString(3)))
+                            .toMillis();
+                    totals.merge(rs.getInt(1), duration, Long::sum);
+                }
+            }
+        } else {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(
+                         "SELECT player_id, SUM(end_timestamp - start_timestamp) FROM turn GROUP BY player_id")) {
+                while (rs.next()) {
+                    totals.put(rs.getInt(1), rs.getLong(2));
+                }
+            }
+        }
+        return totals;
+    }
+
+    private boolean isText() {
+        return "text".equals(storage);
+    }
+}
@@ -0,0 +1,76 @@
+package com.fdifrison.catan.dicecounter.cli;
+
+import com.fdifrison.catan.dicecounter.config.LeagueContext;
+import com.fdifrison.catan.dicecounter.dto.GameImportResultDTO;
+import com.fdifrison.catan.dicecounter.service.GameTransferService;
+import com.fdifrison.catan.dicecounter.service.TransferFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Exports the game history to a file with {@code --export-games=<file>}, or imports one with
+ * {@code --import-games=<file>}, on startup. The format follows the file extension: {@code .csv}, otherwise NDJSON.
+ * {@code --league=<league>} transfers the games of a league instead of the main database. Runs before the player stats
+ * rebuild, which an import makes unnecessary.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class GameTransferRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GameTransferRunner.class);
+
+    static final String EXPORT_OPTION = "export-games";
+    static final String IMPORT_OPTION = "import-games";
+    static final String LEAGUE_OPTION = "league";
+
+    private final GameTransferService gameTransferService;
+
+    public GameTransferRunner(GameTransferService gameTransferService) {
+        this.gameTransferService = gameTransferService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<String> leagues = option(args, LEAGUE_OPTION);
+        String league = leagues.isEmpty() ? null : LeagueContext.validate(leagues.getLast());
+        try (LeagueContext.Binding ignored = LeagueContext.bind(league)) {
+            transfer(args);
+        }
+    }
+
+    private void transfer(ApplicationArguments args) throws IOException {
+        for (String file : option(args, IMPORT_OPTION)) {
+            log.info("Importing games from {}", file);
+            try (InputStream inputStream = Files.newInputStream(Path.of(file))) {
+                GameImportResultDTO result = gameTransferService.importGames(TransferFormat.ofFileName(file),
+                        inputStream);
+                log.info("Imported {} games, {} turns and {} rolls from {}", result.games(), result.turns(),
+                        result.rolls(), file);
+            }
+        }
+        for (String file : option(args, EXPORT_OPTION)) {
+            log.info("Exporting games to {}", file);
+            try (OutputStream outputStream = Files.newOutputStream(Path.of(file))) {
+                gameTransferService.exportGames(TransferFormat.ofFileName(file), outputStream);
+            }
+            log.info("Exported games to {}", file);
+        }
+    }
+
+    private static List<String> option(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        return values != null ? values : List.of();
+    }
+}
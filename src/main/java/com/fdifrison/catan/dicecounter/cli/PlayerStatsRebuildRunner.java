@@ -0,0 +1,36 @@
+package com.fdifrison.catan.dicecounter.cli;
+
+import com.fdifrison.catan.dicecounter.service.GameService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes the {@code player_stats} aggregate on startup when the application is launched with
+ * {@code --rebuild-player-stats}, e.g. after importing data or upgrading an existing database.
+ */
+@Component
+public class PlayerStatsRebuildRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayerStatsRebuildRunner.class);
+
+    static final String OPTION = "rebuild-player-stats";
+
+    private final GameService gameService;
+
+    public PlayerStatsRebuildRunner(GameService gameService) {
+        this.gameService = gameService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        log.info("Rebuilding player stats");
+        int players = gameService.rebuildPlayerStats().join();
+        log.info("Rebuilt player stats of {} players", players);
+    }
+}
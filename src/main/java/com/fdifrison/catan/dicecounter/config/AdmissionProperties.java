@@ -0,0 +1,11 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.admission")
+public record AdmissionProperties(boolean enabled,
+                                  int readPermits,
+                                  Duration timeout) {
+}
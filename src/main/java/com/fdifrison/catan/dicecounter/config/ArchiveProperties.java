@@ -0,0 +1,12 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @param path the archive file, empty for the database file with an {@code .archive} suffix
+ */
+@ConfigurationProperties(prefix = "app.archive")
+public record ArchiveProperties(boolean enabled,
+                                String path,
+                                int batchSize) {
+}
@@ -0,0 +1,50 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import io.micrometer.core.instrument.Counter;
+import org.sqlite.BusyHandler;
+
+/**
+ * Waits for a locked database the way SQLite's own busy timeout does, with growing sleeps up to {@code busy-timeout},
+ * and counts every retry and every statement that gave up with {@code SQLITE_BUSY}.
+ */
+class CountingBusyHandler extends BusyHandler {
+
+    private static final long[] DELAYS_MILLIS = {1, 2, 5, 10, 15, 20, 25, 25, 25, 50, 50, 100};
+
+    private final long timeoutMillis;
+    private final Counter retries;
+    private final Counter timeouts;
+
+    CountingBusyHandler(long timeoutMillis, Counter retries, Counter timeouts) {
+        this.timeoutMillis = timeoutMillis;
+        this.retries = retries;
+        this.timeouts = timeouts;
+    }
+
+    @Override
+    protected int callback(int previousInvocations) {
+        long waited = waitedBefore(previousInvocations);
+        if (waited >= timeoutMillis) {
+            timeouts.increment();
+            return 0;
+        }
+        retries.increment();
+        long delay = Math.min(DELAYS_MILLIS[Math.min(previousInvocations, DELAYS_MILLIS.length - 1)],
+                timeoutMillis - waited);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        return 1;
+    }
+
+    private static long waitedBefore(int invocations) {
+        long waited = 0;
+        for (int i = 0; i < invocations; i++) {
+            waited += DELAYS_MILLIS[Math.min(i, DELAYS_MILLIS.length - 1)];
+        }
+        return waited;
+    }
+}
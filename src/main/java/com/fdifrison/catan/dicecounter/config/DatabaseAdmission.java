@@ -0,0 +1,181 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission in front of the connection pools that gives writes priority over reads. The pools already keep them apart,
+ * the writer having its own connection, but not from competing for the disk and the CPU: here a write that is waiting
+ * holds back the reads that have not started yet, so a burst of analytics queries delays the next write by the reads
+ * already running at most. Writes are admitted one at a time, as the writer pool has a single connection, and reads
+ * while fewer than {@code read-permits} are running and no write is waiting. A caller waits here rather than in a
+ * pool, without holding a connection; a connection keeps its permit until it is closed, and a caller that waits longer
+ * than {@code timeout} fails with {@link DatabaseBusyException} instead of holding its thread.
+ */
+public class DatabaseAdmission {
+
+    public enum Lane {
+        WRITE,
+        READ
+    }
+
+    /**
+     * Connections of the writer pool.
+     */
+    static final int WRITE_PERMITS = 1;
+
+    private final int readPermits;
+    private final long timeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition writeAdmitted = lock.newCondition();
+    private final Condition readAdmitted = lock.newCondition();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private int writesInUse;
+    private int writesWaiting;
+    private int readsInUse;
+
+    public DatabaseAdmission(AdmissionProperties properties) {
+        this.readPermits = Math.max(properties.readPermits(), 1);
+        this.timeoutNanos = properties.timeout().toNanos();
+    }
+
+    /**
+     * Wraps the data source so that every connection it hands out holds a permit of the lane until it is closed.
+     */
+    public DataSource guard(DataSource dataSource, Lane lane) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return admit(lane, super::getConnection);
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return admit(lane, () -> super.getConnection(username, password));
+            }
+        };
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public int getInUse() {
+        lock.lock();
+        try {
+            return writesInUse + readsInUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void acquire(Lane lane) {
+        long remaining = timeoutNanos;
+        lock.lock();
+        try {
+            if (lane == Lane.WRITE) {
+                writesWaiting++;
+                try {
+                    while (writesInUse >= WRITE_PERMITS) {
+                        if (remaining <= 0) {
+                            throw reject(lane);
+                        }
+                        remaining = writeAdmitted.awaitNanos(remaining);
+                    }
+                    writesInUse++;
+                } finally {
+                    if (--writesWaiting == 0) {
+                        readAdmitted.signalAll();
+                    }
+                }
+            } else {
+                while (readsInUse >= readPermits || writesWaiting > 0) {
+                    if (remaining <= 0) {
+                        throw reject(lane);
+                    }
+                    remaining = readAdmitted.awaitNanos(remaining);
+                }
+                readsInUse++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(lane);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(Lane lane) {
+        lock.lock();
+        try {
+            if (lane == Lane.WRITE) {
+                writesInUse--;
+                writeAdmitted.signal();
+            } else {
+                readsInUse--;
+                readAdmitted.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private DatabaseBusyException reject(Lane lane) {
+        rejected.incrementAndGet();
+        return new DatabaseBusyException(lane, TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+    }
+
+    private Connection admit(Lane lane, ConnectionSupplier supplier) throws SQLException {
+        acquire(lane);
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            release(lane);
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                        }
+                    }
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            release(lane);
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,8 @@
+package com.fdifrison.catan.dicecounter.config;
+
+public class DatabaseBusyException extends RuntimeException {
+
+    public DatabaseBusyException(DatabaseAdmission.Lane lane, long timeoutMillis) {
+        super("Database busy: no " + lane.name().toLowerCase() + " permit within " + timeoutMillis + " ms");
+    }
+}
@@ -1,29 +1,231 @@
 package com.fdifrison.catan.dicecounter.config;
 
+import com.fdifrison.catan.dicecounter.repository.GameArchive;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.BusyHandler;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * SQLite allows a single writer at a time, so all writes go through one dedicated connection while
+ * {@code @Transactional(readOnly = true)} work is routed to a pool of query-only connections. With the database in WAL
+ * mode readers never block the writer and vice versa.
+ * <p>
+ * Each league is a database of its own with the same pair of pools, see {@link LeagueRoutingDataSource}. Analytics
+ * can read a periodic copy of the main database instead, see {@link SnapshotReplica}.
+ */
 @Configuration
 public class DbConfig {
 
     private final DbProperties properties;
+    private final AdmissionProperties admissionProperties;
+    private final LeagueProperties leagueProperties;
+    private final ReplicaProperties replicaProperties;
+    private final GroupCommitProperties groupCommitProperties;
 
-    public DbConfig(DbProperties properties) {
+    public DbConfig(DbProperties properties, AdmissionProperties admissionProperties,
+                    LeagueProperties leagueProperties, ReplicaProperties replicaProperties,
+                    GroupCommitProperties groupCommitProperties) {
         this.properties = properties;
+        this.admissionProperties = admissionProperties;
+        this.leagueProperties = leagueProperties;
+        this.replicaProperties = replicaProperties;
+        this.groupCommitProperties = groupCommitProperties;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource writerDataSource(MeterRegistry meterRegistry) {
+        return newWriterPool("sqlite-writer", properties.url(), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @DependsOn("writerDataSource")  // The writer creates the file and switches it to WAL before readers open it
+    public HikariDataSource readerDataSource(MeterRegistry meterRegistry) {
+        return newReaderPool("sqlite-reader", properties.url(), meterRegistry);
     }
 
     @Bean
-    public HikariDataSource dataSource() {
-        HikariDataSource dataSource = new HikariDataSource();
-        dataSource.setJdbcUrl(properties.url());
-        dataSource.setDriverClassName(properties.driverClassName());
-        dataSource.setMaximumPoolSize(properties.hikari().maximumPoolSize());  // Match application.yml
+    public DatabaseAdmission databaseAdmission() {
+        return new DatabaseAdmission(admissionProperties);
+    }
+
+    /**
+     * The snapshot of the main database for analytics. Its read-only transactions go to a query-only pool on the
+     * replica file, opened on the first of them; the others to the main database's writer.
+     */
+    @Bean(destroyMethod = "close")
+    public SnapshotReplica snapshotReplica(HikariDataSource writerDataSource, DatabaseAdmission databaseAdmission,
+                                           GameArchive gameArchive, MeterRegistry meterRegistry) {
+        Path path = SnapshotReplica.resolvePath(replicaProperties.path(), properties.url());
+        HikariDataSource pool = newReaderPool("sqlite-replica", "jdbc:sqlite:" + path, meterRegistry);
+        SnapshotReplica replica = new SnapshotReplica(replicaProperties, properties.url(), path, pool,
+                route(writerDataSource, pool, databaseAdmission), gameArchive::getCommittedLength);
+        Gauge.builder("database.replica.age", replica, SnapshotReplica::getAgeSeconds)
+                .description("Age of the snapshot replica in seconds")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        return replica;
+    }
+
+    /**
+     * Routes connections to the database of the current league, or to the pools of the main database outside of one:
+     * its snapshot replica while the thread reads from it.
+     */
+    @Bean(destroyMethod = "close")
+    @Primary
+    public LeagueRoutingDataSource dataSource(HikariDataSource writerDataSource, HikariDataSource readerDataSource,
+                                              DatabaseAdmission databaseAdmission, SnapshotReplica snapshotReplica,
+                                              MeterRegistry meterRegistry, ResourceLoader resourceLoader,
+                                              @Value("${spring.liquibase.change-log}") String changeLog,
+                                              ApplicationEventPublisher eventPublisher) {
+        LeagueRoutingDataSource dataSource = new LeagueRoutingDataSource(
+                route(writerDataSource, readerDataSource, databaseAdmission), snapshotReplica,
+                leagueProperties::isServed, league -> openLeague(league, meterRegistry, resourceLoader, changeLog),
+                leagueProperties.idleTimeout(), eventPublisher);
+        Gauge.builder("database.leagues.open", dataSource, LeagueRoutingDataSource::getOpenLeagues)
+                .description("Leagues open, i.e. used within the idle timeout")
+                .register(meterRegistry);
+        return dataSource;
+    }
+
+    /**
+     * Opens the pools of a league's database, creating the file when it does not exist and migrating its schema. A
+     * league has its own admission: it does not share the writer of another league, so it does not share its permits
+     * either.
+     */
+    private LeagueRoutingDataSource.Pools openLeague(String league, MeterRegistry meterRegistry,
+                                                     ResourceLoader resourceLoader, String changeLog) {
+        Path file = leagueProperties.file(league, properties.url());
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String url = "jdbc:sqlite:" + file;
+        HikariDataSource writer = newWriterPool("sqlite-writer-" + league, url, meterRegistry);
+        HikariDataSource reader = null;
+        try {
+            SpringLiquibase liquibase = new SpringLiquibase();
+            liquibase.setDataSource(writer);
+            liquibase.setChangeLog(changeLog);
+            liquibase.setResourceLoader(resourceLoader);
+            liquibase.afterPropertiesSet();
+            reader = newReaderPool("sqlite-reader-" + league, url, meterRegistry);
+            return new LeagueRoutingDataSource.Pools(writer, reader,
+                    route(writer, reader, new DatabaseAdmission(admissionProperties)));
+        } catch (LiquibaseException | RuntimeException e) {
+            if (reader != null) {
+                reader.close();
+            }
+            writer.close();
+            throw new IllegalStateException("Cannot open league '" + league + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Connections are fetched lazily, on the first statement, so the read-only flag of the surrounding transaction is
+     * known when the target pool is chosen. With admission enabled, connections of the writer take the write lane and
+     * those of the query-only pool the read lane.
+     */
+    private DataSource route(HikariDataSource writerDataSource, HikariDataSource readerDataSource,
+                             DatabaseAdmission databaseAdmission) {
+        DataSource writer = writerDataSource;
+        DataSource reader = readerDataSource;
+        if (admissionProperties.enabled()) {
+            writer = databaseAdmission.guard(writerDataSource, DatabaseAdmission.Lane.WRITE);
+            reader = databaseAdmission.guard(readerDataSource, DatabaseAdmission.Lane.READ);
+        }
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writer);
+        dataSource.setReadOnlyDataSource(reader);
+        return dataSource;
+    }
+
+    /**
+     * With group commit on, the writer runs with {@code synchronous=FULL}: in WAL mode {@code NORMAL} does not sync the
+     * log on commit, so a batch's callers would be answered before their turns are durable. The one sync per batch is
+     * what group commit spreads over its turns.
+     */
+    private HikariDataSource newWriterPool(String poolName, String url, MeterRegistry meterRegistry) {
+        Properties pragmas = new Properties();
+        pragmas.setProperty("journal_mode", properties.sqlite().journalMode());
+        pragmas.setProperty("synchronous",
+                groupCommitProperties.enabled() ? "FULL" : properties.sqlite().synchronous());
+        // Take the write lock when the transaction begins: a deferred transaction that reads first cannot wait for
+        // the lock later, SQLite fails the upgrade with SQLITE_BUSY without calling the busy handler
+        pragmas.setProperty("transaction_mode", "IMMEDIATE");
+        HikariDataSource dataSource = newPool(poolName, url, 1, pragmas, meterRegistry);
+        dataSource.setMinimumIdle(1);
+        return dataSource;
+    }
+
+    private HikariDataSource newReaderPool(String poolName, String url, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = newPool(poolName, url, properties.hikari().maximumPoolSize(), new Properties(),
+                meterRegistry);
         dataSource.setMinimumIdle(properties.hikari().minimumIdle());
-        dataSource.setConnectionTimeout(properties.hikari().connectionTimeout());
         dataSource.setIdleTimeout(properties.hikari().idleTimeout());
+        dataSource.setConnectionInitSql("PRAGMA query_only = true");
+        return dataSource;
+    }
+
+    /**
+     * Connections come from a {@link SQLiteDataSource} rather than the driver, so each one gets a
+     * {@link CountingBusyHandler} in place of SQLite's busy timeout and lock waits show up as metrics. Each is also
+     * wrapped once, when the pool opens it, to count the statements of a request, see {@link QueryCountingInterceptor}.
+     */
+    private HikariDataSource newPool(String poolName, String url, int maximumPoolSize, Properties pragmas,
+                                     MeterRegistry meterRegistry) {
+        pragmas.setProperty("cache_size", String.valueOf(properties.sqlite().cacheSize()));
+        pragmas.setProperty("mmap_size", String.valueOf(properties.sqlite().mmapSize()));
+        pragmas.setProperty("temp_store", properties.sqlite().tempStore());
+        SQLiteDataSource sqliteDataSource = new SQLiteDataSource(new SQLiteConfig(pragmas));
+        sqliteDataSource.setUrl(url);
+
+        Counter retries = Counter.builder("sqlite.busy.retries")
+                .description("Retries of statements that found the database locked")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        Counter timeouts = Counter.builder("sqlite.busy.timeouts")
+                .description("Statements that failed with SQLITE_BUSY after busy-timeout")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        long busyTimeout = properties.hikari().busyTimeout();
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setDataSource(new DelegatingDataSource(sqliteDataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                BusyHandler.setHandler(connection, new CountingBusyHandler(busyTimeout, retries, timeouts));
+                return QueryCountingInterceptor.counting(connection);
+            }
+        });
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setConnectionTimeout(properties.hikari().connectionTimeout());
         dataSource.setMaxLifetime(properties.hikari().maxLifetime());
-        dataSource.addDataSourceProperty("busy_timeout", "10000");  // SQLite-specific
         return dataSource;
     }
-}
\ No newline at end of file
+}
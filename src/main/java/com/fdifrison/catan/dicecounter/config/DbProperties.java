@@ -3,7 +3,7 @@ package com.fdifrison.catan.dicecounter.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "spring.datasource")
-public record DbProperties(String url, String driverClassName, Hikari hikari) {
+public record DbProperties(String url, String driverClassName, Hikari hikari, Sqlite sqlite) {
 
     record Hikari(long connectionTimeout,
                   int maximumPoolSize ,
@@ -11,4 +11,10 @@ public record DbProperties(String url, String driverClassName, Hikari hikari) {
                   long idleTimeout,
                   long maxLifetime,
                   long busyTimeout) {}
-}
\ No newline at end of file
+
+    record Sqlite(String journalMode,
+                  String synchronous,
+                  int cacheSize,
+                  long mmapSize,
+                  String tempStore) {}
+}
@@ -0,0 +1,12 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.group-commit")
+public record GroupCommitProperties(boolean enabled,
+                                    int queueCapacity,
+                                    int maxBatchSize,
+                                    Duration maxDelay) {
+}
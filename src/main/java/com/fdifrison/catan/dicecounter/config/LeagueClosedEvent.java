@@ -0,0 +1,8 @@
+package com.fdifrison.catan.dicecounter.config;
+
+/**
+ * Published when an idle league has been closed and forgotten, for its {@link LeagueScoped} beans to be destroyed.
+ * The next use of the league opens it again with new instances.
+ */
+public record LeagueClosedEvent(String league) {
+}
@@ -0,0 +1,36 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Leagues: separate databases in one deployment, selected per request by {@link LeagueFilter}. The league travels
+ * with the work a request hands to {@code @Async} methods and streamed responses, and beans holding per-database state
+ * are {@link LeagueScoped}.
+ */
+@Configuration
+public class LeagueConfig {
+
+    @Bean
+    public static LeagueScope leagueScope() {
+        return new LeagueScope();
+    }
+
+    @Bean
+    public FilterRegistrationBean<LeagueFilter> leagueFilter(LeagueProperties properties) {
+        FilterRegistrationBean<LeagueFilter> registration = new FilterRegistrationBean<>(new LeagueFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    /**
+     * Applied by Spring Boot to the task executor of {@code @Async} methods and asynchronous requests; carries the
+     * snapshot replica a request reads from as well, since Spring Boot applies a single decorator.
+     */
+    @Bean
+    public TaskDecorator leagueTaskDecorator() {
+        return task -> LeagueContext.wrap(SnapshotReplica.wrap(task));
+    }
+}
@@ -0,0 +1,86 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The league the current thread works on. It selects the database of every connection the thread takes, see
+ * {@link LeagueRoutingDataSource}, and the instances of the {@link LeagueScoped} beans it calls. No league is the main
+ * database.
+ */
+public final class LeagueContext {
+
+    // League names double as file names
+    private static final Pattern NAME = Pattern.compile("[a-z0-9][a-z0-9_-]{0,63}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Puts the thread back on its previous league when closed.
+     */
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private LeagueContext() {
+    }
+
+    /**
+     * The league of the current thread, or null for the main database.
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Puts the current thread on the league until the binding is closed.
+     */
+    public static Binding bind(String league) {
+        String previous = CURRENT.get();
+        set(league);
+        return () -> set(previous);
+    }
+
+    /**
+     * Runs the task on the league, then puts the thread back on its previous league.
+     */
+    public static void run(String league, Runnable task) {
+        try (Binding ignored = bind(league)) {
+            task.run();
+        }
+    }
+
+    public static <T> T call(String league, Supplier<T> task) {
+        try (Binding ignored = bind(league)) {
+            return task.get();
+        }
+    }
+
+    /**
+     * The task bound to the league of the current thread, to run on another one.
+     */
+    public static Runnable wrap(Runnable task) {
+        String league = CURRENT.get();
+        return () -> run(league, task);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the name is not lowercase letters, digits, {@code -} and {@code _}
+     */
+    public static String validate(String league) {
+        if (league == null || !NAME.matcher(league).matches()) {
+            throw new IllegalArgumentException("Invalid league: " + league
+                    + " (lowercase letters, digits, '-' and '_', at most 64)");
+        }
+        return league;
+    }
+
+    private static void set(String league) {
+        if (league != null) {
+            CURRENT.set(league);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
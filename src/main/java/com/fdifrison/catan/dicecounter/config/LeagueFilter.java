@@ -0,0 +1,66 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Puts a request on the league named by its {@code /api/leagues/{league}/} path prefix, or else by the league header,
+ * for the whole of its handling. A request naming no league works on the main database, one naming a league that is
+ * not configured is answered with 404 before any database is touched. Asynchronous dispatches are filtered as well,
+ * so the end of a streamed response is handled on the same league.
+ */
+public class LeagueFilter extends OncePerRequestFilter {
+
+    private static final Pattern LEAGUE_PATH = Pattern.compile("^/api/leagues/([^/]+)(/.*)?$");
+
+    private final LeagueProperties properties;
+
+    public LeagueFilter(LeagueProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Matcher path = LEAGUE_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+        String league = path.matches() ? path.group(1) : request.getHeader(properties.header());
+        if (properties.enabled() && !isAsyncDispatch(request)) {
+            response.addHeader(HttpHeaders.VARY, properties.header());
+        }
+        if (league == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!properties.enabled()) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Leagues are disabled");
+            return;
+        }
+        try {
+            LeagueContext.validate(league);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        }
+        if (!properties.isServed(league)) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Unknown league: " + league);
+            return;
+        }
+        try (LeagueContext.Binding ignored = LeagueContext.bind(league)) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
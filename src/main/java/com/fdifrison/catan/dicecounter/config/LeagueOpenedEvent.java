@@ -0,0 +1,8 @@
+package com.fdifrison.catan.dicecounter.config;
+
+/**
+ * Published each time the database of a league is opened and migrated, on a thread working on that league: on its
+ * first use in a run, and on its first use after it was closed for idleness.
+ */
+public record LeagueOpenedEvent(String league) {
+}
@@ -0,0 +1,53 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param names       the leagues served; a request naming another league is answered with 404, so requests cannot
+ *                    create databases
+ * @param directory   where the league databases are kept, empty for the directory of the main database
+ * @param header      request header naming the league, as an alternative to the {@code /api/leagues/{league}} prefix
+ * @param idleTimeout how long a league stays open after the last use of its connections
+ */
+@ConfigurationProperties(prefix = "app.leagues")
+public record LeagueProperties(boolean enabled,
+                               List<String> names,
+                               String directory,
+                               String header,
+                               Duration idleTimeout) {
+
+    public LeagueProperties {
+        names = names == null ? List.of() : names.stream()
+                .filter(name -> !name.isBlank())
+                .map(LeagueContext::validate)
+                .toList();
+    }
+
+    /**
+     * Whether leagues are enabled and the league is one of them.
+     */
+    public boolean isServed(String league) {
+        return enabled && names.contains(league);
+    }
+
+    /**
+     * The database file of the league, {@code <league>.db} in the league directory. Leagues of an in-memory main
+     * database are kept in the temporary directory.
+     */
+    public Path file(String league, String mainUrl) {
+        Path leagueDirectory;
+        if (directory != null && !directory.isBlank()) {
+            leagueDirectory = Path.of(directory);
+        } else {
+            String mainFile = mainUrl.replaceFirst("^jdbc:sqlite:", "").replaceFirst("^file:", "")
+                    .replaceFirst("\\?.*$", "");
+            Path parent = mainFile.isEmpty() || mainFile.contains(":memory:") ? null : Path.of(mainFile).getParent();
+            leagueDirectory = parent != null ? parent : Path.of(System.getProperty("java.io.tmpdir"));
+        }
+        return leagueDirectory.resolve(LeagueContext.validate(league) + ".db");
+    }
+}
@@ -0,0 +1,290 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Routes each connection to the database of the {@link LeagueContext#current() current league}, the main database
+ * when there is none, or its {@link SnapshotReplica} while the thread reads from it. Every league is a SQLite file of
+ * its own with its own writer, so the leagues do not wait on each other's writes.
+ * <p>
+ * Only the configured leagues are routed to; a connection of any other league is refused, so no file is created for
+ * it. A league's pools are opened and its schema migrated on its first connection. Once none of its connections was
+ * in use for {@code idle-timeout} the league is closed: its pools are closed, it is forgotten, and a
+ * {@link LeagueClosedEvent} destroys its {@link LeagueScoped} beans. The next connection opens it again. The main
+ * database is never closed.
+ */
+public class LeagueRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LeagueRoutingDataSource.class);
+
+    /**
+     * The pools of an open league and the data source routing between them.
+     */
+    public record Pools(HikariDataSource writer, HikariDataSource reader, DataSource dataSource) {
+
+        void close() {
+            reader.close();
+            writer.close();
+        }
+    }
+
+    @FunctionalInterface
+    public interface PoolFactory {
+        /**
+         * Opens the pools of the league, migrating its schema first.
+         */
+        Pools open(String league);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    private final SnapshotReplica snapshotReplica;
+    private final Predicate<String> served;
+    private final PoolFactory poolFactory;
+    private final long idleTimeoutNanos;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, League> leagues = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("league-evictor").daemon().factory());
+
+    public LeagueRoutingDataSource(DataSource mainDataSource, SnapshotReplica snapshotReplica,
+                                   Predicate<String> served, PoolFactory poolFactory, Duration idleTimeout,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.snapshotReplica = snapshotReplica;
+        this.served = served;
+        this.poolFactory = poolFactory;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.eventPublisher = eventPublisher;
+        setDefaultTargetDataSource(mainDataSource);
+        setTargetDataSources(Map.of());
+        long period = Math.max(idleTimeout.toMillis() / 2, 1000);
+        evictor.scheduleWithFixedDelay(this::closeIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public int getOpenLeagues() {
+        return leagues.size();
+    }
+
+    /**
+     * Whether the league is open, i.e. its connections were used within {@code idle-timeout}.
+     */
+    public boolean isOpen(String league) {
+        return leagues.containsKey(league);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return LeagueContext.current();
+    }
+
+    @Override
+    protected DataSource determineTargetDataSource() {
+        String league = LeagueContext.current();
+        if (league == null) {
+            DataSource replica = snapshotReplica.getDataSource();
+            return replica != null ? replica : super.determineTargetDataSource();
+        }
+        if (!served.test(league)) {
+            throw new IllegalStateException("Unknown league: " + league);
+        }
+        while (true) {
+            DataSource dataSource = leagues.computeIfAbsent(league, League::new).open();
+            if (dataSource != null) {
+                return dataSource;
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * A league's connection is borrowed until it is closed, so the league is not closed under it: the pools hand out
+     * lazy connections, which take a physical one only on their first statement. A league closed between its lookup
+     * and the borrow is looked up, and opened, again.
+     */
+    private Connection connect(ConnectionSupplier supplier) throws SQLException {
+        String league = LeagueContext.current();
+        if (league == null) {
+            return supplier.get(determineTargetDataSource());
+        }
+        if (!served.test(league)) {
+            throw new SQLException("Unknown league: " + league);
+        }
+        while (true) {
+            League target = leagues.computeIfAbsent(league, League::new);
+            Connection connection = target.borrow(supplier);
+            if (connection != null) {
+                if (target.announce()) {
+                    eventPublisher.publishEvent(new LeagueOpenedEvent(league));
+                }
+                return connection;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        leagues.values().forEach(League::close);
+    }
+
+    /**
+     * Closes and forgets the idle leagues, then has their scoped beans destroyed on the evictor's thread.
+     */
+    private void closeIdle() {
+        for (League league : leagues.values()) {
+            try {
+                if (league.closeIfIdle()) {
+                    leagues.remove(league.name, league);
+                    log.info("Closed idle league '{}'", league.name);
+                    eventPublisher.publishEvent(new LeagueClosedEvent(league.name));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Closing idle league '{}' failed", league.name, e);
+            }
+        }
+    }
+
+    private final class League {
+
+        private final String name;
+        private Pools pools;
+        private boolean closed;
+        private boolean announced;
+        private int borrowed;
+        private long lastUsed;
+
+        private League(String name) {
+            this.name = name;
+        }
+
+        /**
+         * The data source of the league, opening and migrating it on first use; null once the league is closed.
+         */
+        synchronized DataSource open() {
+            if (closed) {
+                return null;
+            }
+            if (pools == null) {
+                pools = poolFactory.open(name);
+                log.info("Opened league '{}'", name);
+            }
+            lastUsed = System.nanoTime();
+            return pools.dataSource();
+        }
+
+        /**
+         * A connection of the league, counted until it is closed; null once the league is closed.
+         */
+        Connection borrow(ConnectionSupplier supplier) throws SQLException {
+            DataSource dataSource;
+            synchronized (this) {
+                dataSource = open();
+                if (dataSource == null) {
+                    return null;
+                }
+                borrowed++;
+            }
+            Connection connection;
+            try {
+                connection = supplier.get(dataSource);
+            } catch (SQLException | RuntimeException e) {
+                giveBack();
+                throw e;
+            }
+            AtomicBoolean returned = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals" -> {
+                                return proxy == args[0];
+                            }
+                            case "hashCode" -> {
+                                return System.identityHashCode(proxy);
+                            }
+                            default -> {
+                            }
+                        }
+                        if (method.getName().equals("close") && returned.compareAndSet(false, true)) {
+                            try {
+                                connection.close();
+                            } finally {
+                                giveBack();
+                            }
+                            return null;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        private synchronized void giveBack() {
+            borrowed--;
+            lastUsed = System.nanoTime();
+        }
+
+        /**
+         * Whether the first opening of the league is still to be announced, which it then is.
+         */
+        synchronized boolean announce() {
+            if (announced || pools == null) {
+                return false;
+            }
+            announced = true;
+            return true;
+        }
+
+        /**
+         * Closes the league if none of its connections is borrowed and none was used within {@code idle-timeout}.
+         *
+         * @return whether it was closed
+         */
+        synchronized boolean closeIfIdle() {
+            if (closed || borrowed > 0 || System.nanoTime() - lastUsed <= idleTimeoutNanos) {
+                return false;
+            }
+            close();
+            return true;
+        }
+
+        synchronized void close() {
+            closed = true;
+            if (pools != null) {
+                pools.close();
+                pools = null;
+            }
+        }
+    }
+}
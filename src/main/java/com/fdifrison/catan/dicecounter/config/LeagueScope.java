@@ -0,0 +1,131 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.Scope;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@value #NAME} scope: instances are kept per {@link LeagueContext#current() league}, created on first use and
+ * destroyed when the league is closed for idleness, see {@link LeagueClosedEvent}, or when the application context
+ * closes, before the data sources they may still need. A caller holding the proxy of a destroyed instance gets a new
+ * one on its next call, and the subscribers of a destroyed event stream reconnect.
+ */
+public class LeagueScope implements Scope, BeanFactoryPostProcessor, ApplicationListener<ApplicationEvent> {
+
+    public static final String NAME = "league";
+
+    private static final Logger log = LoggerFactory.getLogger(LeagueScope.class);
+
+    private static final String MAIN = "";
+
+    private final Map<String, Beans> leagues = new ConcurrentHashMap<>();
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        beanFactory.registerScope(NAME, this);
+    }
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        Beans beans = leagues.computeIfAbsent(key(), league -> new Beans());
+        // Not computeIfAbsent: creating a bean can create another one of the same league
+        synchronized (beans) {
+            Object bean = beans.instances.get(name);
+            if (bean == null) {
+                bean = objectFactory.getObject();
+                beans.instances.put(name, bean);
+            }
+            return bean;
+        }
+    }
+
+    @Override
+    public Object remove(String name) {
+        Beans beans = leagues.get(key());
+        if (beans == null) {
+            return null;
+        }
+        synchronized (beans) {
+            beans.destructionCallbacks.remove(name);
+            return beans.instances.remove(name);
+        }
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        Beans beans = leagues.computeIfAbsent(key(), league -> new Beans());
+        synchronized (beans) {
+            beans.destructionCallbacks.put(name, callback);
+        }
+    }
+
+    @Override
+    public Object resolveContextualObject(String key) {
+        return null;
+    }
+
+    @Override
+    public String getConversationId() {
+        return key();
+    }
+
+    /**
+     * Destroys the instances of a closed league, or of every league when the context closes.
+     */
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ContextClosedEvent) {
+            leagues.keySet().forEach(this::destroy);
+        } else if (event instanceof PayloadApplicationEvent<?> payload
+                && payload.getPayload() instanceof LeagueClosedEvent closed) {
+            destroy(closed.league());
+        }
+    }
+
+    /**
+     * Forgets the instances of the league, so the next call creates new ones, then destroys them, the most recently
+     * created first.
+     */
+    private void destroy(String league) {
+        Beans beans = leagues.remove(league);
+        if (beans == null) {
+            return;
+        }
+        List<Runnable> callbacks;
+        synchronized (beans) {
+            callbacks = new ArrayList<>(beans.destructionCallbacks.values());
+            beans.destructionCallbacks.clear();
+            beans.instances.clear();
+        }
+        for (Runnable callback : callbacks.reversed()) {
+            try {
+                LeagueContext.run(league.equals(MAIN) ? null : league, callback);
+            } catch (RuntimeException e) {
+                log.warn("Destroying a bean of league '{}' failed", league, e);
+            }
+        }
+    }
+
+    private static String key() {
+        String league = LeagueContext.current();
+        return league != null ? league : MAIN;
+    }
+
+    private static final class Beans {
+        private final Map<String, Object> instances = new LinkedHashMap<>();
+        private final Map<String, Runnable> destructionCallbacks = new LinkedHashMap<>();
+    }
+}
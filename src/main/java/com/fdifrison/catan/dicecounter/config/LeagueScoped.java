@@ -0,0 +1,21 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Gives the bean one instance per league, for beans holding state of a single database such as caches and id blocks.
+ * Callers get a proxy that calls the instance of the current league, see {@link LeagueScope}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Scope(value = LeagueScope.NAME, proxyMode = ScopedProxyMode.TARGET_CLASS)
+public @interface LeagueScoped {
+}
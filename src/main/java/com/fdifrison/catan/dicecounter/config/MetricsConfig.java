@@ -0,0 +1,33 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Metrics beyond what Spring Boot binds on its own (request latencies, Hibernate statistics, Hikari pools): statements
+ * per request and the database admission state. Everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final QueryCountingInterceptor queryCountingInterceptor;
+
+    public MetricsConfig(MeterRegistry meterRegistry, DatabaseAdmission databaseAdmission) {
+        this.queryCountingInterceptor = new QueryCountingInterceptor(meterRegistry);
+        Gauge.builder("database.admission.in.use", databaseAdmission, DatabaseAdmission::getInUse)
+                .description("Connections holding an admission permit")
+                .register(meterRegistry);
+        FunctionCounter.builder("database.admission.rejected", databaseAdmission, DatabaseAdmission::getRejected)
+                .description("Connection requests rejected after the admission timeout")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryCountingInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,119 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Records how many SQL statements were run while a request was handled, as the {@code jdbc.statements} summary tagged
+ * with the route. The statements are counted on the pooled connections, see {@link #counting(Connection)}, so those of
+ * Hibernate and of {@code JdbcTemplate} both are; statements run on other threads, such as the group-commit writer, are
+ * not attributed to a request.
+ */
+public class QueryCountingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountingInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * The connection, counting every statement it prepares and every SQL string run or batched on its plain statements.
+     */
+    static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "prepareStatement", "prepareCall" -> count();
+                        default -> {
+                        }
+                    }
+                    Object result = invoke(connection, method, args);
+                    return result instanceof Statement statement && method.getName().equals("createStatement")
+                            ? countingExecutions(statement)
+                            : result;
+                });
+    }
+
+    private static Statement countingExecutions(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    if ((method.getName().startsWith("execute") || method.getName().equals("addBatch"))
+                            && args != null && args[0] instanceof String) {
+                        count();
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void count() {
+        int[] statements = STATEMENTS.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // An async redispatch only writes the result, its statements were counted by the first dispatch
+        if (request.getDispatcherType() == DispatcherType.REQUEST) {
+            STATEMENTS.set(new int[1]);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        record(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        record(request);
+    }
+
+    private void record(HttpServletRequest request) {
+        int[] statements = STATEMENTS.get();
+        if (statements == null) {
+            return;
+        }
+        STATEMENTS.remove();
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("jdbc.statements")
+                .description("SQL statements run per request")
+                .tag("method", request.getMethod())
+                .tag("uri", route != null ? route.toString() : "UNKNOWN")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statements[0]);
+    }
+}
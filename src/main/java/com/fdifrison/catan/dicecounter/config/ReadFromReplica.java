@@ -0,0 +1,18 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler whose read-only transactions may run on the {@link SnapshotReplica} of the main database, for reads
+ * that can be a little behind and would otherwise hold a long read transaction on the live database. The age of the
+ * snapshot read is returned in the {@value SnapshotReplica#AGE_HEADER} header.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadFromReplica {
+}
@@ -0,0 +1,23 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Serves the {@link ReadFromReplica} handlers from the {@link SnapshotReplica} of the main database.
+ */
+@Configuration
+public class ReplicaConfig implements WebMvcConfigurer {
+
+    private final SnapshotReplica snapshotReplica;
+
+    public ReplicaConfig(SnapshotReplica snapshotReplica) {
+        this.snapshotReplica = snapshotReplica;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReplicaInterceptor(snapshotReplica)).addPathPatterns("/api/**");
+    }
+}
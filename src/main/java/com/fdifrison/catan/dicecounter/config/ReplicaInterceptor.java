@@ -0,0 +1,61 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Optional;
+
+/**
+ * Puts the requests to {@link ReadFromReplica} handlers on the latest {@link SnapshotReplica} of the main database,
+ * unless it is older than {@code max-staleness}, and sends its age in whole seconds. Requests on a league, and
+ * requests arriving while no fresh snapshot exists, read the database itself and get no age header.
+ */
+public class ReplicaInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String BINDING = ReplicaInterceptor.class.getName() + ".BINDING";
+
+    private final SnapshotReplica snapshotReplica;
+
+    public ReplicaInterceptor(SnapshotReplica snapshotReplica) {
+        this.snapshotReplica = snapshotReplica;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // An async redispatch only writes the result, the work it waited for carried the snapshot along
+        if (request.getDispatcherType() != DispatcherType.REQUEST
+                || !(handler instanceof HandlerMethod method)
+                || !method.hasMethodAnnotation(ReadFromReplica.class)
+                || LeagueContext.current() != null) {
+            return true;
+        }
+        Optional<SnapshotReplica.Snapshot> snapshot = snapshotReplica.getFreshSnapshot();
+        if (snapshot.isPresent()) {
+            response.setHeader(SnapshotReplica.AGE_HEADER, String.valueOf(snapshot.get().getAge().toSeconds()));
+            request.setAttribute(BINDING, SnapshotReplica.read(snapshot.get()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        unbind(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        unbind(request);
+    }
+
+    private static void unbind(HttpServletRequest request) {
+        if (request.getAttribute(BINDING) instanceof SnapshotReplica.Binding binding) {
+            request.removeAttribute(BINDING);
+            binding.close();
+        }
+    }
+}
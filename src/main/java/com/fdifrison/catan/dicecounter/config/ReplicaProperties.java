@@ -0,0 +1,17 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param path         the replica file, empty for the database file with a {@code .replica} suffix
+ * @param interval     time between the end of a snapshot and the start of the next
+ * @param maxStaleness age past which a snapshot is no longer read from and the reads go back to the main database
+ */
+@ConfigurationProperties(prefix = "app.replica")
+public record ReplicaProperties(boolean enabled,
+                                String path,
+                                Duration interval,
+                                Duration maxStaleness) {
+}
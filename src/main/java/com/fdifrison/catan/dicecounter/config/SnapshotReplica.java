@@ -0,0 +1,221 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-only copy of the main database for analytics ({@code app.replica.enabled}). Every {@code interval} the database
+ * is copied with {@code VACUUM INTO}, a consistent snapshot taken in a single read transaction, and the copy replaces
+ * the replica file; the replica's pool then drops its connections so they reopen on the new file.
+ * <p>
+ * While a thread {@link #read(Snapshot) reads from the replica}, its read-only transactions run on the snapshot and
+ * its writes still go to the main database. Long analytics reads then no longer hold a read transaction on the live
+ * database, which keeps WAL checkpoints from completing. A snapshot older than {@code max-staleness}, because the
+ * copies fail or fall behind, is not read from.
+ */
+public class SnapshotReplica implements AutoCloseable {
+
+    public static final String AGE_HEADER = "X-Replica-Age";
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotReplica.class);
+
+    private static final ThreadLocal<Snapshot> READING = new ThreadLocal<>();
+
+    /**
+     * Puts the thread back on the snapshot it read from before, if any, when closed.
+     */
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * A copy of the database as of {@code takenAt}, and the committed length of the game archive before it was taken:
+     * games the copy records past that length are read from its rows.
+     */
+    public record Snapshot(Instant takenAt, long archiveLength) {
+
+        public Duration getAge() {
+            return Duration.between(takenAt, Instant.now());
+        }
+    }
+
+    private final ReplicaProperties properties;
+    private final String url;
+    private final Path path;
+    private final HikariDataSource pool;
+    private final DataSource dataSource;
+    private final LongSupplier archiveLength;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("snapshot-replica").daemon().factory());
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param pool          query-only pool on the replica file
+     * @param dataSource    routes read-only transactions to the pool and the others to the main database
+     * @param archiveLength the committed length of the main database's game archive
+     */
+    public SnapshotReplica(ReplicaProperties properties, String url, Path path, HikariDataSource pool,
+                           DataSource dataSource, LongSupplier archiveLength) {
+        this.properties = properties;
+        this.url = url;
+        this.path = path;
+        this.pool = pool;
+        this.dataSource = dataSource;
+        this.archiveLength = archiveLength;
+    }
+
+    /**
+     * The replica file: the configured path, or the database file with a {@code .replica} suffix; a temporary file for
+     * an in-memory database.
+     */
+    public static Path resolvePath(String path, String url) {
+        if (path != null && !path.isBlank()) {
+            return Path.of(path);
+        }
+        String file = url.replaceFirst("^jdbc:sqlite:", "").replaceFirst("^file:", "").replaceFirst("\\?.*$", "");
+        if (file.isEmpty() || file.contains(":memory:")) {
+            return Path.of(System.getProperty("java.io.tmpdir"), "database-" + ProcessHandle.current().pid()
+                    + ".replica");
+        }
+        return Path.of(file + ".replica");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::refresh, 0, properties.interval().toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Snapshot replica enabled: {} every {}, read while younger than {}", path, properties.interval(),
+                properties.maxStaleness());
+    }
+
+    /**
+     * The latest snapshot, unless it is older than {@code max-staleness}.
+     */
+    public Optional<Snapshot> getFreshSnapshot() {
+        Snapshot current = snapshot;
+        return current != null && current.getAge().compareTo(properties.maxStaleness()) <= 0
+                ? Optional.of(current)
+                : Optional.empty();
+    }
+
+    /**
+     * The age of the latest snapshot in seconds, NaN before the first one.
+     */
+    public double getAgeSeconds() {
+        Snapshot current = snapshot;
+        return current != null ? current.getAge().toMillis() / 1000.0 : Double.NaN;
+    }
+
+    /**
+     * Puts the current thread on the snapshot until the binding is closed.
+     */
+    public static Binding read(Snapshot snapshot) {
+        Snapshot previous = READING.get();
+        READING.set(snapshot);
+        return () -> {
+            if (previous != null) {
+                READING.set(previous);
+            } else {
+                READING.remove();
+            }
+        };
+    }
+
+    /**
+     * The snapshot the current thread reads from, if any.
+     */
+    public static Optional<Snapshot> reading() {
+        return Optional.ofNullable(READING.get());
+    }
+
+    /**
+     * The task bound to the snapshot of the current thread, to run on another one.
+     */
+    public static Runnable wrap(Runnable task) {
+        Snapshot current = READING.get();
+        if (current == null) {
+            return task;
+        }
+        return () -> {
+            try (Binding ignored = read(current)) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * The data source of the main database's connections while the current thread reads from the replica, else null.
+     */
+    DataSource getDataSource() {
+        return READING.get() != null ? dataSource : null;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    /**
+     * Takes a new snapshot and points the replica's pool at it. Runs every {@code interval} once the application is
+     * ready; a failed copy keeps the previous snapshot.
+     */
+    synchronized void refresh() {
+        long start = System.nanoTime();
+        Instant takenAt = Instant.now();
+        long length = archiveLength.getAsLong();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.deleteIfExists(temporary);
+            SQLiteDataSource source = new SQLiteDataSource();
+            source.setUrl(url);
+            try (Connection connection = source.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("VACUUM INTO ?")) {
+                statement.setString(1, temporary.toString());
+                statement.execute();
+            }
+            SQLiteDataSource copy = new SQLiteDataSource();
+            copy.setUrl("jdbc:sqlite:" + temporary);
+            try (Connection connection = copy.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode = DELETE");  // Read only, no need for a WAL
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (SQLException | IOException | UncheckedIOException e) {
+            log.warn("Refreshing the snapshot replica failed, the previous snapshot is {}s old: {}",
+                    Math.round(getAgeSeconds()), e.getMessage());
+            return;
+        }
+        snapshot = new Snapshot(takenAt, length);
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();  // Null until the pool is first used
+        if (bean != null) {
+            bean.softEvictConnections();  // Connections still in use finish on the previous file
+        }
+        log.debug("Snapshot replica refreshed in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,87 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Traces one request in every {@code sampleRate}: while it is handled, the application's debug logging and the SQL
+ * statements are logged whatever the configured levels are. The trace id is put in the MDC and returned as the
+ * {@code X-Trace-Id} header, so the lines of a request can be found from its response.
+ */
+public class TraceSamplingFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID = "traceId";
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final int sampleRate;
+    private final AtomicLong requests = new AtomicLong();
+
+    public TraceSamplingFilter(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (requests.getAndIncrement() % sampleRate != 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String traceId = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+        response.setHeader(TRACE_ID_HEADER, traceId);
+        MDC.put(TRACE_ID, traceId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(TRACE_ID);
+        }
+    }
+
+    /**
+     * Lets every event of the traced loggers through while the current thread handles a sampled request, and leaves
+     * the decision to the configured levels otherwise.
+     */
+    static class SampledTraceTurboFilter extends TurboFilter {
+
+        private static final String APPLICATION_LOGGER = "com.fdifrison.catan";
+        private static final String SQL_LOGGER = "org.hibernate.SQL";
+
+        void install(LoggerContext loggerContext) {
+            setContext(loggerContext);
+            start();
+            loggerContext.addTurboFilter(this);
+        }
+
+        void uninstall() {
+            ((LoggerContext) getContext()).getTurboFilterList().remove(this);
+            stop();
+        }
+
+        @Override
+        public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                                  Throwable t) {
+            if (MDC.get(TRACE_ID) == null) {
+                return FilterReply.NEUTRAL;
+            }
+            String name = logger.getName();
+            return name.startsWith(APPLICATION_LOGGER) || name.equals(SQL_LOGGER)
+                    ? FilterReply.ACCEPT
+                    : FilterReply.NEUTRAL;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sampled request tracing, on when {@code app.tracing.sample-rate} is positive: one request in that many is logged
+ * in full, see {@link TraceSamplingFilter}.
+ */
+@Configuration
+@ConditionalOnExpression("${app.tracing.sample-rate:0} > 0")
+public class TracingConfig {
+
+    /**
+     * The turbo filter lives in the global logger context, which outlives the application context: it is taken out
+     * again when the application context closes.
+     */
+    @Bean(destroyMethod = "uninstall")
+    TraceSamplingFilter.SampledTraceTurboFilter sampledTraceTurboFilter() {
+        TraceSamplingFilter.SampledTraceTurboFilter turboFilter = new TraceSamplingFilter.SampledTraceTurboFilter();
+        turboFilter.install((LoggerContext) LoggerFactory.getILoggerFactory());
+        return turboFilter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<TraceSamplingFilter> traceSamplingFilter(
+            @Value("${app.tracing.sample-rate}") int sampleRate) {
+        FilterRegistrationBean<TraceSamplingFilter> registration =
+                new FilterRegistrationBean<>(new TraceSamplingFilter(sampleRate));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -1,44 +1,205 @@
 package com.fdifrison.catan.dicecounter.controller;
 
+import com.fdifrison.catan.dicecounter.config.DatabaseBusyException;
+import com.fdifrison.catan.dicecounter.config.ReadFromReplica;
+import com.fdifrison.catan.dicecounter.dto.CompactGameDTO;
+import com.fdifrison.catan.dicecounter.dto.DiceFairnessDTO;
 import com.fdifrison.catan.dicecounter.dto.EndGameDTO;
 import com.fdifrison.catan.dicecounter.dto.GameCreateDTO;
 import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GameImportResultDTO;
+import com.fdifrison.catan.dicecounter.dto.GamePageDTO;
+import com.fdifrison.catan.dicecounter.dto.GameSessionStatsDTO;
 import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.LeaderboardPageDTO;
 import com.fdifrison.catan.dicecounter.dto.PlayerStatsDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerTurnTimeDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnBatchCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnBatchResultDTO;
 import com.fdifrison.catan.dicecounter.dto.TurnCreateDTO;
 import com.fdifrison.catan.dicecounter.dto.TurnDTO;
+import com.fdifrison.catan.dicecounter.repository.GameCursor;
+import com.fdifrison.catan.dicecounter.service.DiceFairnessService;
+import com.fdifrison.catan.dicecounter.service.GameEventBroadcaster;
 import com.fdifrison.catan.dicecounter.service.GameService;
+import com.fdifrison.catan.dicecounter.service.GameTransferService;
+import com.fdifrison.catan.dicecounter.service.GroupCommitTurnWriter;
+import com.fdifrison.catan.dicecounter.service.TransferFormat;
+import com.fdifrison.catan.dicecounter.service.TurnQueueFullException;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
-@RequestMapping("/api/games")
+@RequestMapping({"/api/games", "/api/leagues/{league}/games"})
 public class GameController {
 
     private final GameService gameService;
+    private final GroupCommitTurnWriter groupCommitTurnWriter;
+    private final GameEventBroadcaster gameEventBroadcaster;
+    private final DiceFairnessService diceFairnessService;
+    private final GameTransferService gameTransferService;
 
-    public GameController(GameService gameService) {
+    public GameController(GameService gameService, GroupCommitTurnWriter groupCommitTurnWriter,
+                          GameEventBroadcaster gameEventBroadcaster, DiceFairnessService diceFairnessService,
+                          GameTransferService gameTransferService) {
         this.gameService = gameService;
+        this.groupCommitTurnWriter = groupCommitTurnWriter;
+        this.gameEventBroadcaster = gameEventBroadcaster;
+        this.diceFairnessService = diceFairnessService;
+        this.gameTransferService = gameTransferService;
     }
 
-    @GetMapping
-    public ResponseEntity<List<GameDTO>> getAllGames() {
-        return ResponseEntity.ok(gameService.getAllGames());
+    /**
+     * Answers {@code If-None-Match} from the data version before reading the page. The version is read first, so the
+     * page sent is never older than its ETag.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<GamePageDTO> getGames(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "50") int limit,
+                                                @RequestHeader HttpHeaders headers) {
+        String eTag = "W/\"games-" + gameService.getDataVersion() + "\"";
+        if (isNotModified(headers, eTag)) {
+            return notModified(eTag, CacheControl.noCache());
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(gameService.getGames(cursor, limit));
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ReadFromReplica
+    public ResponseEntity<StreamingResponseBody> streamGames(@RequestParam(required = false) String cursor) {
+        // Decoded before the response is committed, so a bad cursor is still answered with a 400
+        GameCursor after = cursor != null ? GameCursor.decode(cursor) : null;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> gameService.streamGames(after, outputStream));
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ReadFromReplica
+    public ResponseEntity<StreamingResponseBody> exportGamesAsNdjson() {
+        return exportGames(TransferFormat.NDJSON);
+    }
+
+    @GetMapping(path = "/export", produces = "text/csv")
+    @ReadFromReplica
+    public ResponseEntity<StreamingResponseBody> exportGamesAsCsv() {
+        return exportGames(TransferFormat.CSV);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportGames(TransferFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("games" + format.getFileExtension()).build().toString())
+                .body(outputStream -> gameTransferService.exportGames(format, outputStream));
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<GameImportResultDTO> importGamesFromNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(gameTransferService.importGames(TransferFormat.NDJSON, body));
+    }
+
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ResponseEntity<GameImportResultDTO> importGamesFromCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(gameTransferService.importGames(TransferFormat.CSV, body));
+    }
+
+    @GetMapping("/leaderboard")
+    @ReadFromReplica
+    public ResponseEntity<LeaderboardPageDTO> getLeaderboard(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(gameService.getLeaderboard(cursor, limit));
+    }
+
+    /**
+     * Answers {@code If-None-Match} from the version of the game alone, without loading it. Every game is revalidated
+     * on every request, ended ones included, so they get {@code no-cache} rather than a long {@code max-age} or
+     * {@code immutable}: recording a turn after the end, ending the game again or deleting it still changes it.
+     * <p>
+     * {@code Accept: application/vnd.catan.game.compact+json} or {@code ?format=compact} selects the columnar
+     * {@link CompactGameDTO} instead of the {@link GameDTO}.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<GameDTO> getGameById(@PathVariable Integer id) {
+    public ResponseEntity<?> getGameById(@PathVariable Integer id, @RequestParam(required = false) String format,
+                                         @RequestHeader HttpHeaders headers) {
+        boolean compact = "compact".equals(format)
+                || headers.getAccept().stream().anyMatch(CompactGameDTO.MEDIA_TYPE::equalsTypeAndSubtype);
+        Optional<Long> version = gameService.getGameVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String eTag = gameETag(id, version.get(), compact);
+        if (isNotModified(headers, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        if (compact) {
+            return gameService.getCompactGameById(id)
+                    .map(game -> ResponseEntity.ok()
+                            .contentType(CompactGameDTO.MEDIA_TYPE)
+                            .eTag(gameETag(id, game.version(), true))
+                            .cacheControl(CacheControl.noCache())
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .body(game))
+                    .orElse(ResponseEntity.notFound().build());
+        }
         return gameService.getGameById(id)
-                .map(ResponseEntity::ok)
+                .map(game -> ResponseEntity.ok()
+                        .eTag(gameETag(id, game.version(), false))
+                        .cacheControl(CacheControl.noCache())
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .body(game))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    private static String gameETag(Integer id, long version, boolean compact) {
+        return "W/\"game-" + id + "-" + version + (compact ? "-compact" : "") + "\"";
+    }
+
+    /**
+     * Whether {@code If-None-Match} lists the ETag, compared weakly as the header requires. The ETags are weak, not
+     * strong, since Tomcat does not compress a response with a strong one; a 304 needs no more than a weak match.
+     */
+    private static boolean isNotModified(HttpHeaders headers, String eTag) {
+        String opaqueTag = eTag.replaceFirst("^W/", "");
+        return headers.getIfNoneMatch().stream()
+                .anyMatch(tag -> tag.equals("*") || tag.replaceFirst("^W/", "").equals(opaqueTag));
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGameEvents(@PathVariable Integer id) {
+        return gameEventBroadcaster.subscribe(id);
+    }
+
     @GetMapping("/{id}/duration")
     public ResponseEntity<Long> getGameDuration(@PathVariable Integer id) {
         return gameService.getGameById(id)
@@ -46,6 +207,26 @@ public class GameController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/turn-times")
+    public ResponseEntity<List<PlayerTurnTimeDTO>> getTurnTimes(@PathVariable Integer id) {
+        return gameService.getTurnTimes(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/fairness")
+    public ResponseEntity<DiceFairnessDTO> getGameFairness(@PathVariable Integer id) {
+        return diceFairnessService.getGameFairness(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/fairness")
+    @ReadFromReplica
+    public ResponseEntity<DiceFairnessDTO> getGlobalFairness() {
+        return ResponseEntity.ok(diceFairnessService.getGlobalFairness());
+    }
+
     @GetMapping("/{id}/slowest-player")
     public ResponseEntity<String> getSlowestPlayer(@PathVariable Integer id) {
         return ResponseEntity.ok(gameService.findSlowestPlayer(id));
@@ -58,9 +239,18 @@ public class GameController {
     }
 
     @PostMapping("/{gameId}/turns")
-    public ResponseEntity<TurnDTO> recordTurn(@PathVariable Integer gameId, @Valid @RequestBody TurnCreateDTO turnCreateDTO) {
+    public CompletableFuture<ResponseEntity<TurnDTO>> recordTurn(@PathVariable Integer gameId, @Valid @RequestBody TurnCreateDTO turnCreateDTO) {
+        if (groupCommitTurnWriter.isEnabled()) {
+            return groupCommitTurnWriter.submit(gameId, turnCreateDTO).thenApply(ResponseEntity::ok);
+        }
         TurnDTO recordedTurn = gameService.recordTurn(gameId, turnCreateDTO);
-        return ResponseEntity.ok(recordedTurn);
+        return CompletableFuture.completedFuture(ResponseEntity.ok(recordedTurn));
+    }
+
+    @PostMapping("/{gameId}/turns/batch")
+    public ResponseEntity<List<TurnBatchResultDTO>> recordTurns(@PathVariable Integer gameId,
+                                                                @Valid @RequestBody TurnBatchCreateDTO turnBatchCreateDTO) {
+        return ResponseEntity.ok(gameService.recordTurns(gameId, turnBatchCreateDTO));
     }
 
     @PutMapping("/{id}/end")
@@ -87,16 +277,49 @@ public class GameController {
     }
 
     @GetMapping("/players/{globalPlayerId}/stats")
+    @ReadFromReplica
     public ResponseEntity<PlayerStatsDTO> getPlayerStats(@PathVariable Integer globalPlayerId) {
         PlayerStatsDTO stats = gameService.getPlayerStats(globalPlayerId);
         return ResponseEntity.ok(stats);
     }
 
+    @GetMapping("/players/{globalPlayerId}/fairness")
+    @ReadFromReplica
+    public ResponseEntity<DiceFairnessDTO> getPlayerFairness(@PathVariable Integer globalPlayerId) {
+        return diceFairnessService.getPlayerFairness(globalPlayerId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/players/stats/rebuild")
+    public CompletableFuture<ResponseEntity<Integer>> rebuildPlayerStats() {
+        return gameService.rebuildPlayerStats().thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/sessions/stats")
+    public ResponseEntity<GameSessionStatsDTO> getSessionStats() {
+        return ResponseEntity.ok(gameService.getSessionStats());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    @ExceptionHandler(TurnQueueFullException.class)
+    public ResponseEntity<String> handleTurnQueueFullException(TurnQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ResponseEntity<String> handleDatabaseBusyException(DatabaseBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<String> handleValidationExceptions(MethodArgumentNotValidException ex) {
         String errorMessage = ex.getBindingResult().getFieldErrors().stream()
@@ -0,0 +1,22 @@
+package com.fdifrison.catan.dicecounter.converter;
+
+import com.fdifrison.catan.dicecounter.domain.DiceHistogram;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a {@link DiceHistogram} as its fixed-size binary form.
+ */
+@Converter(autoApply = true)
+public class DiceHistogramConverter implements AttributeConverter<DiceHistogram, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(DiceHistogram histogram) {
+        return histogram != null ? histogram.toBytes() : null;
+    }
+
+    @Override
+    public DiceHistogram convertToEntityAttribute(byte[] dbData) {
+        return dbData != null ? DiceHistogram.fromBytes(dbData) : null;
+    }
+}
@@ -5,16 +5,19 @@ import jakarta.persistence.Converter;
 
 import java.time.Instant;
 
+/**
+ * Stores an {@link Instant} as epoch milliseconds, so reads need no parsing and durations can be computed in SQL.
+ */
 @Converter(autoApply = true)
-public class InstantConverter implements AttributeConverter<Instant, String> {
+public class InstantConverter implements AttributeConverter<Instant, Long> {
 
     @Override
-    public String convertToDatabaseColumn(Instant instant) {
-        return instant != null ? instant.toString() : null;
+    public Long convertToDatabaseColumn(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : null;
     }
 
     @Override
-    public Instant convertToEntityAttribute(String dbData) {
-        return dbData != null ? Instant.parse(dbData) : null;
+    public Instant convertToEntityAttribute(Long dbData) {
+        return dbData != null ? Instant.ofEpochMilli(dbData) : null;
     }
-}
\ No newline at end of file
+}
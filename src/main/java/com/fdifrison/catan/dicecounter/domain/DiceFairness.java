@@ -0,0 +1,49 @@
+package com.fdifrison.catan.dicecounter.domain;
+
+/**
+ * Single-pass accumulator over a stream of rolls: their histogram and the longest run of rolls without a 7. Runs do
+ * not cross games, so the rolls of a game must be accepted together and in the order they were recorded. Memory does
+ * not grow with the number of rolls.
+ */
+public final class DiceFairness {
+
+    private static final int SEVEN = 7;
+
+    private final DiceHistogram histogram = new DiceHistogram();
+    private int gameId;
+    private int currentRun;
+    private int longestRun;
+    private Integer longestRunGameId;
+
+    public void accept(int gameId, int number) {
+        histogram.add(number);
+        if (gameId != this.gameId) {
+            this.gameId = gameId;
+            currentRun = 0;
+        }
+        if (number == SEVEN) {
+            currentRun = 0;
+            return;
+        }
+        currentRun++;
+        if (currentRun > longestRun) {
+            longestRun = currentRun;
+            longestRunGameId = gameId;
+        }
+    }
+
+    public DiceHistogram getHistogram() {
+        return histogram;
+    }
+
+    public int getLongestRunWithoutSeven() {
+        return longestRun;
+    }
+
+    /**
+     * The game of the longest run without a 7, the first one on a tie, or null when every roll was a 7.
+     */
+    public Integer getLongestRunGameId() {
+        return longestRunGameId;
+    }
+}
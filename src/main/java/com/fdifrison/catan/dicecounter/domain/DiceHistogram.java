@@ -0,0 +1,199 @@
+package com.fdifrison.catan.dicecounter.domain;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts of the two-dice sums 2..12 in a primitive array. Histograms of single games are stored in a compact column
+ * (see {@link #toBytes()}) and merged to aggregate a player's history without reading the roll rows again.
+ */
+public final class DiceHistogram {
+
+    public static final int MIN_NUMBER = 2;
+    public static final int MAX_NUMBER = 12;
+    public static final int SIZE = MAX_NUMBER - MIN_NUMBER + 1;
+
+    /**
+     * Size of the stored form: one big-endian 32-bit count per number, 2 first.
+     */
+    public static final int BYTES = SIZE * Integer.BYTES;
+
+    private final int[] counts = new int[SIZE];
+
+    public static DiceHistogram of(Map<Integer, Integer> distribution) {
+        DiceHistogram histogram = new DiceHistogram();
+        distribution.forEach(histogram::add);
+        return histogram;
+    }
+
+    public static DiceHistogram fromBytes(byte[] bytes) {
+        if (bytes.length != BYTES) {
+            throw new IllegalArgumentException("Invalid dice histogram length: " + bytes.length);
+        }
+        DiceHistogram histogram = new DiceHistogram();
+        ByteBuffer.wrap(bytes).asIntBuffer().get(histogram.counts);
+        return histogram;
+    }
+
+    public void add(int number) {
+        add(number, 1);
+    }
+
+    public void add(int number, int count) {
+        if (number < MIN_NUMBER || number > MAX_NUMBER) {
+            throw new IllegalArgumentException("Invalid roll number: " + number);
+        }
+        counts[number - MIN_NUMBER] += count;
+    }
+
+    public DiceHistogram merge(DiceHistogram other) {
+        for (int i = 0; i < SIZE; i++) {
+            counts[i] += other.counts[i];
+        }
+        return this;
+    }
+
+    public int count(int number) {
+        return number < MIN_NUMBER || number > MAX_NUMBER ? 0 : counts[number - MIN_NUMBER];
+    }
+
+    public long total() {
+        long total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return total() == 0;
+    }
+
+    /**
+     * The most rolled number, the lowest one on a tie, or null when nothing was rolled.
+     */
+    public Integer luckyNumber() {
+        int lucky = -1;
+        for (int i = 0; i < SIZE; i++) {
+            if (counts[i] > 0 && (lucky < 0 || counts[i] > counts[lucky])) {
+                lucky = i;
+            }
+        }
+        return lucky < 0 ? null : lucky + MIN_NUMBER;
+    }
+
+    /**
+     * Mean rolled number, NaN when nothing was rolled.
+     */
+    public double mean() {
+        long total = total();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += (long) counts[i] * (i + MIN_NUMBER);
+        }
+        return (double) sum / total;
+    }
+
+    /**
+     * Population variance of the rolled numbers, NaN when nothing was rolled.
+     */
+    public double variance() {
+        long total = total();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        double mean = mean();
+        double sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            double deviation = i + MIN_NUMBER - mean;
+            sum += counts[i] * deviation * deviation;
+        }
+        return sum / total;
+    }
+
+    /**
+     * Chi-square statistic of the counts against two fair dice (10 degrees of freedom), 0 when nothing was rolled.
+     */
+    public double chiSquare() {
+        long total = total();
+        if (total == 0) {
+            return 0;
+        }
+        double chiSquare = 0;
+        for (int i = 0; i < SIZE; i++) {
+            double expected = total * probability(i + MIN_NUMBER);
+            double difference = counts[i] - expected;
+            chiSquare += difference * difference / expected;
+        }
+        return chiSquare;
+    }
+
+    /**
+     * Probability that two fair dice give a chi-square statistic at least as large as {@link #chiSquare()}, null when
+     * nothing was rolled. The chi-square approximation needs about five expected rolls of 2 and 12, i.e. 180 rolls.
+     */
+    public Double chiSquarePValue() {
+        return isEmpty() ? null : pValue(chiSquare());
+    }
+
+    /**
+     * Survival function of the chi-square distribution with 10 degrees of freedom:
+     * e^(-x/2) * sum over i < 5 of (x/2)^i / i!
+     */
+    static double pValue(double chiSquare) {
+        double halfChiSquare = chiSquare / 2;
+        double term = 1;
+        double sum = 1;
+        for (int i = 1; i < (SIZE - 1) / 2; i++) {
+            term *= halfChiSquare / i;
+            sum += term;
+        }
+        return Math.min(1, Math.exp(-halfChiSquare) * sum);
+    }
+
+    /**
+     * Probability of rolling the number with two fair dice.
+     */
+    public static double probability(int number) {
+        return (6 - Math.abs(number - 7)) / 36.0;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(BYTES);
+        buffer.asIntBuffer().put(counts);
+        return buffer.array();
+    }
+
+    /**
+     * The numbers rolled at least once with their counts, in ascending order.
+     */
+    public Map<Integer, Integer> toMap() {
+        Map<Integer, Integer> distribution = new TreeMap<>();
+        for (int i = 0; i < SIZE; i++) {
+            if (counts[i] > 0) {
+                distribution.put(i + MIN_NUMBER, counts[i]);
+            }
+        }
+        return distribution;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DiceHistogram other && Arrays.equals(counts, other.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString() {
+        return "DiceHistogram" + toMap();
+    }
+}
@@ -27,6 +27,10 @@ public class Game {
     @Convert(converter = InstantConverter.class)
     private Instant endTimestamp;
 
+    // Bumped with SQL by every change, see VersionRepository
+    @Column(insertable = false, updatable = false)
+    private long version;
+
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Player> players;
 
@@ -0,0 +1,237 @@
+package com.fdifrison.catan.dicecounter.domain;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Columnar binary form of the rolls and turns of a finished game, as stored in the game archive. All integers are
+ * big-endian:
+ * <pre>
+ * int     length               bytes after this field
+ * int     gameId               {@link #REMOVED} once the game left the archive
+ * byte    playerCount
+ * int[]   globalPlayerIds      by player index
+ * int     rollCount
+ * byte[]  numbers              one per roll, in recording order
+ * byte[]  rollPlayerIndexes    two per byte, high nibble first
+ * int     turnCount
+ * byte[]  turnPlayerIndexes    two per byte, high nibble first
+ * varint  turnDurations        milliseconds, each the zigzag-encoded difference from the previous one
+ * </pre>
+ * A roll takes 1.5 bytes and a turn usually 2.5 to 3.5, where their rows take several dozen. Only what the reports
+ * over many games read is stored: ids and timestamps stay in the rows. The length and the game id are the first fields
+ * of every format.
+ * <p>
+ * A segment is read in place: the accessors decode the buffer at the segment's position without copying it.
+ */
+public final class GameSegment {
+
+    public static final int REMOVED = -1;
+
+    /**
+     * Player indexes are packed in a nibble.
+     */
+    public static final int MAX_PLAYERS = 16;
+
+    private static final int GAME_ID_OFFSET = Integer.BYTES;
+    private static final int PLAYERS_OFFSET = GAME_ID_OFFSET + Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int playerCount;
+    private final int rollCount;
+    private final int rollsOffset;
+    private final int turnCount;
+    private final int turnsOffset;
+
+    @FunctionalInterface
+    public interface TurnConsumer {
+        void accept(int playerIndex, long durationMillis);
+    }
+
+    private GameSegment(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.playerCount = Byte.toUnsignedInt(buffer.get(offset + PLAYERS_OFFSET));
+        int rollCountOffset = offset + PLAYERS_OFFSET + 1 + playerCount * Integer.BYTES;
+        this.rollCount = buffer.getInt(rollCountOffset);
+        this.rollsOffset = rollCountOffset + Integer.BYTES;
+        int turnCountOffset = rollsOffset + rollCount + packedLength(rollCount);
+        this.turnCount = buffer.getInt(turnCountOffset);
+        this.turnsOffset = turnCountOffset + Integer.BYTES;
+    }
+
+    /**
+     * The segment starting at the offset of the buffer.
+     */
+    public static GameSegment at(ByteBuffer buffer, int offset) {
+        return new GameSegment(buffer, offset);
+    }
+
+    /**
+     * Bytes taken by the segment starting at the offset, length field included.
+     */
+    public static int sizeAt(ByteBuffer buffer, int offset) {
+        return Integer.BYTES + buffer.getInt(offset);
+    }
+
+    public static byte[] encode(int gameId, int[] globalPlayerIds, byte[] numbers, int[] rollPlayerIndexes,
+                                int[] turnPlayerIndexes, long[] turnDurations) {
+        if (globalPlayerIds.length > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Too many players to archive: " + globalPlayerIds.length);
+        }
+        if (rollPlayerIndexes.length != numbers.length) {
+            throw new IllegalArgumentException("Expected a player index per roll: " + rollPlayerIndexes.length
+                    + " for " + numbers.length + " rolls");
+        }
+        if (turnDurations.length != turnPlayerIndexes.length) {
+            throw new IllegalArgumentException("Expected a duration per turn: " + turnDurations.length
+                    + " for " + turnPlayerIndexes.length + " turns");
+        }
+        int rollCount = numbers.length;
+        int turnCount = turnPlayerIndexes.length;
+        long[] deltas = new long[turnCount];
+        int deltasLength = 0;
+        long previous = 0;
+        for (int i = 0; i < turnCount; i++) {
+            long delta = turnDurations[i] - previous;
+            deltas[i] = (delta << 1) ^ (delta >> 63);
+            deltasLength += varLongLength(deltas[i]);
+            previous = turnDurations[i];
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(PLAYERS_OFFSET + 1 + globalPlayerIds.length * Integer.BYTES
+                + Integer.BYTES + rollCount + packedLength(rollCount)
+                + Integer.BYTES + packedLength(turnCount) + deltasLength);
+        buffer.putInt(buffer.capacity() - Integer.BYTES);
+        buffer.putInt(gameId);
+        buffer.put((byte) globalPlayerIds.length);
+        for (int globalPlayerId : globalPlayerIds) {
+            buffer.putInt(globalPlayerId);
+        }
+        buffer.putInt(rollCount);
+        buffer.put(numbers);
+        putPacked(buffer, rollPlayerIndexes);
+        buffer.putInt(turnCount);
+        putPacked(buffer, turnPlayerIndexes);
+        for (long delta : deltas) {
+            putVarLong(buffer, delta);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * The game id of the segment starting at the offset, read without decoding the segment.
+     */
+    public static int gameIdAt(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + GAME_ID_OFFSET);
+    }
+
+    public int getGameId() {
+        return gameIdAt(buffer, offset);
+    }
+
+    public boolean isRemoved() {
+        return getGameId() == REMOVED;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public int getGlobalPlayerId(int playerIndex) {
+        return buffer.getInt(offset + PLAYERS_OFFSET + 1 + playerIndex * Integer.BYTES);
+    }
+
+    /**
+     * The player index of the global player, or -1 when they did not play the game.
+     */
+    public int indexOf(int globalPlayerId) {
+        for (int i = 0; i < playerCount; i++) {
+            if (getGlobalPlayerId(i) == globalPlayerId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getRollCount() {
+        return rollCount;
+    }
+
+    public int getNumber(int roll) {
+        return buffer.get(rollsOffset + roll);
+    }
+
+    public int getRollPlayerIndex(int roll) {
+        return getPacked(rollsOffset + rollCount, roll);
+    }
+
+    public int getTurnCount() {
+        return turnCount;
+    }
+
+    public int getTurnPlayerIndex(int turn) {
+        return getPacked(turnsOffset, turn);
+    }
+
+    /**
+     * Passes the player index and the duration of every turn to the consumer, in recording order. The durations are
+     * decoded one after the other, so this is a single pass over the segment.
+     */
+    public void forEachTurn(TurnConsumer consumer) {
+        int position = turnsOffset + packedLength(turnCount);
+        long duration = 0;
+        for (int turn = 0; turn < turnCount; turn++) {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            duration += (zigzag >>> 1) ^ -(zigzag & 1);
+            consumer.accept(getTurnPlayerIndex(turn), duration);
+        }
+    }
+
+    private int getPacked(int packedOffset, int index) {
+        int b = buffer.get(packedOffset + index / 2);
+        return index % 2 == 0 ? (b >> 4) & 0x0F : b & 0x0F;
+    }
+
+    private static int packedLength(int count) {
+        return (count + 1) / 2;
+    }
+
+    private static void putPacked(ByteBuffer buffer, int[] values) {
+        for (int i = 0; i < values.length; i += 2) {
+            int high = playerIndex(values[i]);
+            int low = i + 1 < values.length ? playerIndex(values[i + 1]) : 0;
+            buffer.put((byte) (high << 4 | low));
+        }
+    }
+
+    private static int playerIndex(int value) {
+        if (value < 0 || value >= MAX_PLAYERS) {
+            throw new IllegalArgumentException("Invalid player index: " + value);
+        }
+        return value;
+    }
+
+    private static int varLongLength(long value) {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -1,5 +1,6 @@
 package com.fdifrison.catan.dicecounter.domain;
 
+import com.fdifrison.catan.dicecounter.converter.DiceHistogramConverter;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -32,6 +33,10 @@ public class Player {
 
     private Integer points;
 
+    @Column(name = "roll_histogram")
+    @Convert(converter = DiceHistogramConverter.class)
+    private DiceHistogram rollHistogram;  // Set when the game ends
+
     @OneToMany(mappedBy = "player", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Turn> turns;
 }
\ No newline at end of file
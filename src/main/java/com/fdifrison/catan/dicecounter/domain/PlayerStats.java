@@ -0,0 +1,54 @@
+package com.fdifrison.catan.dicecounter.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Entity
+@Table(name = "player_stats")
+@Getter
+@Setter
+public class PlayerStats {
+    @Id
+    @Column(name = "global_player_id")
+    private Integer globalPlayerId;
+
+    @Column(name = "games_played", nullable = false)
+    private int gamesPlayed;
+
+    @Column(name = "total_points", nullable = false)
+    private int totalPoints;
+
+    @Column(name = "scored_games", nullable = false)
+    private int scoredGames;
+
+    @Column(name = "wins", nullable = false)
+    private int wins;
+
+    @Column(name = "ranked_games", nullable = false)
+    private int rankedGames;
+
+    @Column(name = "rank_sum", nullable = false)
+    private int rankSum;
+
+    @Column(name = "turn_count", nullable = false)
+    private int turnCount;
+
+    @Column(name = "turn_seconds_sum", nullable = false)
+    private long turnSecondsSum;
+
+    @Column(name = "turn_seconds_min")
+    private Long turnSecondsMin;
+
+    @Column(name = "turn_seconds_max")
+    private Long turnSecondsMax;
+
+    @ElementCollection
+    @CollectionTable(name = "player_stats_roll", joinColumns = @JoinColumn(name = "global_player_id"))
+    @MapKeyColumn(name = "number")
+    @Column(name = "count", nullable = false)
+    private Map<Integer, Integer> rollDistribution = new HashMap<>();
+}
@@ -0,0 +1,91 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The columnar form of a game, for clients that opt in with {@link #MEDIA_TYPE}. Turns and rolls are sent as parallel
+ * arrays of numbers instead of one object each; timestamps are epoch milliseconds and turns are offsets from the game
+ * start.
+ * <pre>
+ * {"id":1,"name":"...","startTimestamp":1760000000000,"endTimestamp":null,"version":3,
+ *  "players":[{...PlayerDTO...}],
+ *  "turns":{"playerIndexes":[0,1],"turnNumbers":[1,2],"startOffsets":[0,42000],"durations":[42000,68000]},
+ *  "rolls":{"turnIndexes":[0,1],"numbers":[8,7],"playerIndexes":[0,1]}}
+ * </pre>
+ * Player indexes are the player order minus one; a roll's turn index points into the turn arrays, -1 when the roll
+ * has no turn.
+ */
+@JsonSerialize(using = CompactGameDTO.Serializer.class)
+public record CompactGameDTO(
+        int id,
+        String name,
+        long startTimestamp,
+        Long endTimestamp,
+        long version,
+        List<PlayerDTO> players,
+        int[] turnPlayerIndexes,
+        int[] turnNumbers,
+        long[] turnStartOffsets,
+        long[] turnDurations,
+        int[] rollTurnIndexes,
+        int[] rollNumbers,
+        int[] rollPlayerIndexes
+) {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.catan.game.compact+json";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    /**
+     * Writes the columns straight to the generator, without a bean serializer or intermediate objects.
+     */
+    static final class Serializer extends JsonSerializer<CompactGameDTO> {
+
+        @Override
+        public void serialize(CompactGameDTO game, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", game.id());
+            generator.writeStringField("name", game.name());
+            generator.writeNumberField("startTimestamp", game.startTimestamp());
+            if (game.endTimestamp() != null) {
+                generator.writeNumberField("endTimestamp", game.endTimestamp());
+            } else {
+                generator.writeNullField("endTimestamp");
+            }
+            generator.writeNumberField("version", game.version());
+            generator.writeFieldName("players");
+            provider.findValueSerializer(List.class).serialize(game.players(), generator, provider);
+
+            generator.writeObjectFieldStart("turns");
+            writeArray(generator, "playerIndexes", game.turnPlayerIndexes());
+            writeArray(generator, "turnNumbers", game.turnNumbers());
+            writeArray(generator, "startOffsets", game.turnStartOffsets());
+            writeArray(generator, "durations", game.turnDurations());
+            generator.writeEndObject();
+
+            generator.writeObjectFieldStart("rolls");
+            writeArray(generator, "turnIndexes", game.rollTurnIndexes());
+            writeArray(generator, "numbers", game.rollNumbers());
+            writeArray(generator, "playerIndexes", game.rollPlayerIndexes());
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+
+        private static void writeArray(JsonGenerator generator, String field, int[] values) throws IOException {
+            generator.writeFieldName(field);
+            generator.writeArray(values, 0, values.length);
+        }
+
+        private static void writeArray(JsonGenerator generator, String field, long[] values) throws IOException {
+            generator.writeFieldName(field);
+            generator.writeArray(values, 0, values.length);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+import java.util.List;
+
+public record DiceFairnessDTO(
+        long rolls,
+        List<DiceFrequencyDTO> frequencies, // Numbers 2-12
+        double chiSquare, // 10 degrees of freedom
+        Double pValue, // Null without rolls
+        int longestRunWithoutSeven,
+        Integer longestRunGameId
+) {
+}
@@ -0,0 +1,8 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+public record DiceFrequencyDTO(
+        int number,
+        int observed,
+        double expected // With two fair dice
+) {
+}
@@ -10,6 +10,7 @@ public record GameDTO(
         String name,
         Instant startTimestamp,
         Instant endTimestamp,
+        long version,
         @With List<PlayerDTO> players,
         @With List<RollDTO> rolls,
         @With List<TurnDTO> turns
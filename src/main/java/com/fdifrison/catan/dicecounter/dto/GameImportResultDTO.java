@@ -0,0 +1,10 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+public record GameImportResultDTO(
+        int globalPlayersCreated, // Global players are matched by email, the others already existed
+        int games,
+        int players,
+        int turns,
+        int rolls
+) {
+}
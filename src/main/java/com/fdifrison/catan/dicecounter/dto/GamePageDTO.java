@@ -0,0 +1,9 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+import java.util.List;
+
+public record GamePageDTO(
+        List<GameSummaryDTO> games,
+        String nextCursor // Null on the last page
+) {
+}
@@ -0,0 +1,10 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+public record GameSessionStatsDTO(
+        long hits,
+        long misses,
+        long evictions,
+        int size,
+        int maxSize
+) {
+}
@@ -0,0 +1,15 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record GameSummaryDTO(
+        Integer id,
+        String name,
+        Instant startTimestamp,
+        Instant endTimestamp,
+        List<String> playerNames, // Ordered by player order
+        String winner,
+        long rollCount
+) {
+}
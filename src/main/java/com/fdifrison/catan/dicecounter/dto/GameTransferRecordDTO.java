@@ -0,0 +1,61 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One row of a game export: a global player, a game, or a player, turn or roll of the game before it. The fields a
+ * record type does not use are null. Ids are the ones of the exporting database; timestamps are epoch milliseconds.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GameTransferRecordDTO(
+        String record,
+        Integer id,
+        String name,
+        String email,
+        Long startTimestamp,
+        Long endTimestamp,
+        Integer globalPlayerId,
+        Integer playerId,
+        Integer turnId,
+        Integer order,
+        String color,
+        Integer rank,
+        Integer points,
+        Integer turnNumber,
+        Integer number,
+        Integer playerIndex
+) {
+
+    public static final String GLOBAL_PLAYER = "global_player";
+    public static final String GAME = "game";
+    public static final String PLAYER = "player";
+    public static final String TURN = "turn";
+    public static final String ROLL = "roll";
+
+    public static GameTransferRecordDTO globalPlayer(Integer id, String name, String email) {
+        return new GameTransferRecordDTO(GLOBAL_PLAYER, id, name, email, null, null, null, null, null, null, null,
+                null, null, null, null, null);
+    }
+
+    public static GameTransferRecordDTO game(Integer id, String name, Long startTimestamp, Long endTimestamp) {
+        return new GameTransferRecordDTO(GAME, id, name, null, startTimestamp, endTimestamp, null, null, null, null,
+                null, null, null, null, null, null);
+    }
+
+    public static GameTransferRecordDTO player(Integer id, Integer globalPlayerId, Integer order, String color,
+                                               Integer rank, Integer points) {
+        return new GameTransferRecordDTO(PLAYER, id, null, null, null, null, globalPlayerId, null, null, order, color,
+                rank, points, null, null, null);
+    }
+
+    public static GameTransferRecordDTO turn(Integer id, Integer playerId, Integer turnNumber, Long startTimestamp,
+                                             Long endTimestamp) {
+        return new GameTransferRecordDTO(TURN, id, null, null, startTimestamp, endTimestamp, null, playerId, null,
+                null, null, null, null, turnNumber, null, null);
+    }
+
+    public static GameTransferRecordDTO roll(Integer id, Integer turnId, Integer number, Integer playerIndex) {
+        return new GameTransferRecordDTO(ROLL, id, null, null, null, null, null, null, turnId, null, null, null, null,
+                null, number, playerIndex);
+    }
+}
@@ -0,0 +1,12 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+public record LeaderboardEntryDTO(
+        int position, // 1-based
+        Integer globalPlayerId,
+        String name,
+        int gamesPlayed,
+        int wins,
+        Double averageRank, // Null until a game of the player has ended
+        Double averagePoints // Null until the player has been scored in a game
+) {
+}
@@ -0,0 +1,9 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+import java.util.List;
+
+public record LeaderboardPageDTO(
+        List<LeaderboardEntryDTO> players,
+        String nextCursor // Null on the last page
+) {
+}
@@ -0,0 +1,10 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+public record PlayerTurnTimeDTO(
+        Integer playerId,
+        String playerName,
+        long totalSeconds,
+        long turnCount,
+        double averageSeconds
+) {
+}
@@ -0,0 +1,13 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record TurnBatchCreateDTO(
+        @NotEmpty(message = "Turns list cannot be empty")
+        @Size(max = 500, message = "At most 500 turns per batch")
+        List<@Valid TurnCreateDTO> turns
+) {
+}
@@ -0,0 +1,8 @@
+package com.fdifrison.catan.dicecounter.dto;
+
+public record TurnBatchResultDTO(
+        int index, // Position of the turn in the submitted batch
+        TurnDTO turn,
+        String error // Null when the turn was recorded
+) {
+}
@@ -1,5 +1,7 @@
 package com.fdifrison.catan.dicecounter.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
 
@@ -8,6 +10,8 @@ public record TurnCreateDTO(
         int turnNumber,
         Instant startTimestamp,
         Instant endTimestamp,
-        @NotNull(message = "Roll number cannot be null") Integer rollNumber
+        @NotNull(message = "Roll number cannot be null")
+        @Min(value = 2, message = "Roll number must be between 2 and 12")
+        @Max(value = 12, message = "Roll number must be between 2 and 12") Integer rollNumber
 ) {
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ public interface GameMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "startTimestamp", expression = "java(Instant.now())")
     @Mapping(target = "endTimestamp", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "rolls", ignore = true)
     @Mapping(target = "turns", ignore = true)
     Game toEntity(GameCreateDTO dto);
@@ -0,0 +1,36 @@
+package com.fdifrison.catan.dicecounter.mapper;
+
+import com.fdifrison.catan.dicecounter.domain.GlobalPlayer;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.service.GlobalPlayerCache;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps the global player a player points to from the {@link GlobalPlayerCache}, by its id alone, so mapping a player
+ * does not load its lazy global player.
+ */
+@Component
+public class GlobalPlayerReferenceMapper {
+
+    private final GlobalPlayerCache globalPlayerCache;
+
+    public GlobalPlayerReferenceMapper(GlobalPlayerCache globalPlayerCache) {
+        this.globalPlayerCache = globalPlayerCache;
+    }
+
+    @Named("globalPlayerName")
+    public String toName(GlobalPlayer globalPlayer) {
+        return globalPlayer != null ? resolve(globalPlayer).name() : null;
+    }
+
+    @Named("globalPlayerEmail")
+    public String toEmail(GlobalPlayer globalPlayer) {
+        return globalPlayer != null ? resolve(globalPlayer).email() : null;
+    }
+
+    private GlobalPlayerDTO resolve(GlobalPlayer globalPlayer) {
+        return globalPlayerCache.get(globalPlayer.getId()).orElseThrow(
+                () -> new IllegalStateException("Global player not found: " + globalPlayer.getId()));
+    }
+}
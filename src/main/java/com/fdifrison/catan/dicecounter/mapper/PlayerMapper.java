@@ -6,11 +6,11 @@ import com.fdifrison.catan.dicecounter.dto.PlayerDTO;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring", uses = {GlobalPlayerMapper.class})
+@Mapper(componentModel = "spring", uses = {GlobalPlayerMapper.class, GlobalPlayerReferenceMapper.class})
 public interface PlayerMapper {
     @Mapping(source = "globalPlayer.id", target = "globalPlayerId")
-    @Mapping(source = "globalPlayer.name", target = "name")
-    @Mapping(source = "globalPlayer.email", target = "email")
+    @Mapping(source = "globalPlayer", target = "name", qualifiedByName = "globalPlayerName")
+    @Mapping(source = "globalPlayer", target = "email", qualifiedByName = "globalPlayerEmail")
     @Mapping(source = "order", target = "order")
     PlayerDTO toDto(Player player);
 
@@ -20,6 +20,7 @@ public interface PlayerMapper {
     @Mapping(target = "rank", ignore = true)
     @Mapping(target = "points", ignore = true)
     @Mapping(target = "turns", ignore = true)
+    @Mapping(target = "rollHistogram", ignore = true) // Written when the game ends
     @Mapping(source = "order", target = "order")
     @Mapping(source = "color", target = "color")
     Player toEntity(PlayerCreateDTO dto);
@@ -0,0 +1,18 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import java.util.Iterator;
+
+/**
+ * The games a transaction sees as archived before {@code archiveLength}: the offsets of their segments in ascending
+ * order, and the game at each. Reading the {@link GameArchive} through it rather than through the removal marks keeps
+ * the segments and the rows of the transaction one consistent cut, see
+ * {@link GameArchive#forEachGame(ArchivedGames, GameArchive.GameConsumer)}.
+ * <p>
+ * The entries come one at a time from a forward-only result set, so the games are never all held in memory; they can
+ * be read once, during the callback that received them.
+ */
+public record ArchivedGames(long archiveLength, Iterator<Entry> entries) {
+
+    public record Entry(long offset, int gameId) {
+    }
+}
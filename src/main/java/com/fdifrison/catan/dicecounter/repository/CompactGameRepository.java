@@ -0,0 +1,86 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import com.fdifrison.catan.dicecounter.dto.CompactGameDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Reads a game in its columnar form with one query per table: turns and rolls go straight from the result set into
+ * primitive columns, without entities or per-row objects.
+ */
+@Repository
+public class CompactGameRepository {
+
+    private record GameRow(String name, long startTimestamp, Long endTimestamp, long version) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CompactGameRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<CompactGameDTO> findById(Integer gameId) {
+        List<GameRow> games = jdbcTemplate.query(
+                "SELECT name, start_timestamp, end_timestamp, version FROM game WHERE id = ?",
+                (rs, rowNum) -> {
+                    long endTimestamp = rs.getLong(3);
+                    return new GameRow(rs.getString(1), rs.getLong(2), rs.wasNull() ? null : endTimestamp,
+                            rs.getLong(4));
+                }, gameId);
+        if (games.isEmpty()) {
+            return Optional.empty();
+        }
+        GameRow game = games.getFirst();
+
+        List<PlayerDTO> players = jdbcTemplate.query("""
+                SELECT p.id, p.global_player_id, gp.name, gp.email, p.color, p.order_number, p.rank, p.points
+                FROM player p JOIN global_player gp ON gp.id = p.global_player_id
+                WHERE p.game_id = ?
+                ORDER BY p.order_number
+                """, (rs, rowNum) -> new PlayerDTO(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4),
+                rs.getString(5), rs.getInt(6), rs.getObject(7, Integer.class), rs.getObject(8, Integer.class)),
+                gameId);
+
+        Map<Integer, Integer> turnIndexes = new HashMap<>();  // Key: turn id
+        IntStream.Builder turnPlayerIndexes = IntStream.builder();
+        IntStream.Builder turnNumbers = IntStream.builder();
+        LongStream.Builder turnStartOffsets = LongStream.builder();
+        LongStream.Builder turnDurations = LongStream.builder();
+        jdbcTemplate.query("""
+                SELECT t.id, p.order_number - 1, t.turn_number, t.start_timestamp, t.end_timestamp
+                FROM turn t JOIN player p ON p.id = t.player_id
+                WHERE t.game_id = ?
+                ORDER BY t.id
+                """, rs -> {
+            turnIndexes.put(rs.getInt(1), turnIndexes.size());
+            turnPlayerIndexes.add(rs.getInt(2));
+            turnNumbers.add(rs.getInt(3));
+            turnStartOffsets.add(rs.getLong(4) - game.startTimestamp());
+            turnDurations.add(rs.getLong(5) - rs.getLong(4));
+        }, gameId);
+
+        IntStream.Builder rollTurnIndexes = IntStream.builder();
+        IntStream.Builder rollNumbers = IntStream.builder();
+        IntStream.Builder rollPlayerIndexes = IntStream.builder();
+        jdbcTemplate.query("SELECT turn_id, number, player_index FROM roll WHERE game_id = ? ORDER BY id", rs -> {
+            int turnId = rs.getInt(1);
+            rollTurnIndexes.add(rs.wasNull() ? -1 : turnIndexes.getOrDefault(turnId, -1));
+            rollNumbers.add(rs.getInt(2));
+            rollPlayerIndexes.add(rs.getInt(3));
+        }, gameId);
+
+        return Optional.of(new CompactGameDTO(gameId, game.name(), game.startTimestamp(), game.endTimestamp(),
+                game.version(), players, turnPlayerIndexes.build().toArray(), turnNumbers.build().toArray(),
+                turnStartOffsets.build().toArray(), turnDurations.build().toArray(), rollTurnIndexes.build().toArray(),
+                rollNumbers.build().toArray(), rollPlayerIndexes.build().toArray()));
+    }
+}
@@ -0,0 +1,248 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import com.fdifrison.catan.dicecounter.config.ArchiveProperties;
+import com.fdifrison.catan.dicecounter.config.DbProperties;
+import com.fdifrison.catan.dicecounter.config.LeagueContext;
+import com.fdifrison.catan.dicecounter.config.LeagueProperties;
+import com.fdifrison.catan.dicecounter.config.LeagueScoped;
+import com.fdifrison.catan.dicecounter.domain.GameSegment;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Append-only file of {@link GameSegment}s, the columnar copy of the finished games. Segments are appended at the
+ * end, removed by overwriting their game id, and read through memory-mapped windows of the file.
+ * <p>
+ * Which segment belongs to which game is recorded in {@code game.archive_offset}; a segment nothing points to is dead
+ * weight, never read as a game. Removing a segment only marks it, its bytes stay in place. Only the first {@link #getCommittedLength()} bytes are read: past it are segments whose
+ * transaction has not committed yet.
+ * <p>
+ * Each league has an archive of its own, beside its database file.
+ */
+@Repository
+@LeagueScoped
+public class GameArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(GameArchive.class);
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    @FunctionalInterface
+    public interface GameConsumer {
+        void accept(GameSegment segment, int gameId);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int gameId, long offset, int size);
+    }
+
+    @FunctionalInterface
+    private interface WindowConsumer {
+        void accept(ByteBuffer window, int offset, long position);
+    }
+
+    private final boolean enabled;
+    private final Path path;
+    private final FileChannel channel;
+    private volatile long committedLength;
+
+    public GameArchive(ArchiveProperties properties, DbProperties dbProperties, LeagueProperties leagueProperties)
+            throws IOException {
+        this.enabled = properties.enabled();
+        if (!enabled) {
+            this.path = null;
+            this.channel = null;
+            return;
+        }
+        String league = LeagueContext.current();
+        this.path = league == null
+                ? resolvePath(properties.path(), dbProperties.url())
+                : Path.of(leagueProperties.file(league, dbProperties.url()) + ".archive");
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        log.info("Game archive: {} ({} bytes)", path, channel.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getSize() {
+        try {
+            return enabled ? channel.size() : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getCommittedLength() {
+        return committedLength;
+    }
+
+    /**
+     * Makes the segments before the end visible to readers, once the transaction recording them has committed.
+     */
+    public synchronized void commit(long end) {
+        committedLength = Math.max(committedLength, end);
+    }
+
+    /**
+     * Writes the segment at the end of the file and syncs it, returning its offset.
+     */
+    public synchronized long append(byte[] segment) {
+        try {
+            long offset = channel.size();
+            ByteBuffer buffer = ByteBuffer.wrap(segment);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            channel.force(false);
+            return offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void markRemoved(long offset) {
+        try {
+            ByteBuffer gameId = ByteBuffer.allocate(Integer.BYTES).putInt(0, GameSegment.REMOVED);
+            channel.write(gameId, offset + Integer.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cuts the file at the length, dropping the segments after it; readers only see what is left.
+     */
+    public synchronized void truncate(long length) {
+        try {
+            channel.truncate(length);
+            channel.force(false);
+            committedLength = Math.min(length, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Passes every segment starting before the limit to the consumer with its offset, removed ones included, in file
+     * order. A segment is only valid during the call. Stops at a segment cut short by a crash during its append.
+     *
+     * @return the end of the last whole segment
+     */
+    public long forEachSegment(long limit, ObjLongConsumer<GameSegment> consumer) {
+        return scan(limit, (window, offset, position) -> consumer.accept(GameSegment.at(window, offset), position));
+    }
+
+    /**
+     * Passes the game id, offset and size of every segment starting before the limit to the consumer, like
+     * {@link #forEachSegment}, without decoding the segments: it reads archives in an older segment format too.
+     *
+     * @return the end of the last whole segment
+     */
+    public long forEachEntry(long limit, EntryConsumer consumer) {
+        return scan(limit, (window, offset, position) ->
+                consumer.accept(GameSegment.gameIdAt(window, offset), position, GameSegment.sizeAt(window, offset)));
+    }
+
+    /**
+     * Passes the segments of the archived games to the consumer, in file order, with the game each belongs to.
+     * <p>
+     * A segment is read because the transaction that listed the games sees it recorded, whether or not it was marked
+     * removed since: un-archiving a game clears its offset in a transaction and marks the segment removed only once
+     * that transaction has committed, and a removed segment keeps its rolls. The segments read and the rows the
+     * transaction reads for the other games then come from the same cut, and every game is counted exactly once.
+     */
+    public void forEachGame(ArchivedGames games, GameConsumer consumer) {
+        Iterator<ArchivedGames.Entry> entries = games.entries();
+        if (!entries.hasNext()) {
+            return;
+        }
+        ArchivedGames.Entry[] next = {entries.next()};
+        forEachSegment(games.archiveLength(), (segment, offset) -> {
+            while (next[0] != null && next[0].offset() < offset) {
+                // Not a segment start, never recorded by a committed archiving
+                next[0] = entries.hasNext() ? entries.next() : null;
+            }
+            if (next[0] != null && next[0].offset() == offset) {
+                consumer.accept(segment, next[0].gameId());
+                next[0] = entries.hasNext() ? entries.next() : null;
+            }
+        });
+    }
+
+    private long scan(long limit, WindowConsumer consumer) {
+        if (!enabled) {
+            return 0;
+        }
+        try {
+            long end = Math.min(limit, channel.size());
+            long position = 0;
+            while (position + Integer.BYTES <= end) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(Math.max(WINDOW_SIZE, segmentSize(position)), end - position));
+                int offset = 0;
+                while (offset + Integer.BYTES <= window.limit()) {
+                    int size = GameSegment.sizeAt(window, offset);
+                    if (size <= Integer.BYTES || offset + size > window.limit()) {
+                        break;
+                    }
+                    consumer.accept(window, offset, position + offset);
+                    offset += size;
+                }
+                if (offset == 0) {
+                    break;  // A torn segment
+                }
+                position += offset;
+            }
+            return position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private long segmentSize(long position) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        channel.read(length, position);
+        return length.hasRemaining() ? 0 : GameSegment.sizeAt(length, 0);
+    }
+
+    /**
+     * The configured path, or the database file with an {@code .archive} suffix; a temporary file for an in-memory
+     * database.
+     */
+    private static Path resolvePath(String path, String url) throws IOException {
+        if (path != null && !path.isBlank()) {
+            return Path.of(path);
+        }
+        String file = url.replaceFirst("^jdbc:sqlite:", "").replaceFirst("^file:", "").replaceFirst("\\?.*$", "");
+        if (file.isEmpty() || file.contains(":memory:")) {
+            Path archive = Files.createTempFile("games-", ".archive");
+            archive.toFile().deleteOnExit();
+            return archive;
+        }
+        return Path.of(file + ".archive");
+    }
+}
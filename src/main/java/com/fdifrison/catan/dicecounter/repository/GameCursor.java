@@ -0,0 +1,28 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the game listing, ordered by {@code (start_timestamp, id)} descending. Exposed to clients as an
+ * opaque token.
+ */
+public record GameCursor(long startTimestamp, int id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = Long.toString(startTimestamp) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static GameCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new GameCursor(Long.parseLong(raw.substring(0, separator)), Integer.parseInt(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import com.fdifrison.catan.dicecounter.dto.GameTransferRecordDTO;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Reads the whole game history as a stream of {@link GameTransferRecordDTO}s: the global players, then every game
+ * followed by its players, turns and rolls. Each table is read by one forward-only cursor in {@code game_id} order,
+ * walking an index, and the cursors advance together game by game, so memory does not grow with the history.
+ */
+@Repository
+public class GameExportRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GameExportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void forEachRecord(Consumer<GameTransferRecordDTO> consumer) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (ResultSet globalPlayers = query(connection, "SELECT id, name, email FROM global_player ORDER BY id")) {
+                while (globalPlayers.next()) {
+                    consumer.accept(GameTransferRecordDTO.globalPlayer(globalPlayers.getInt(1),
+                            globalPlayers.getString(2), globalPlayers.getString(3)));
+                }
+            }
+            try (ResultSet games = query(connection,
+                    "SELECT id, name, start_timestamp, end_timestamp FROM game ORDER BY id");
+                 Cursor players = new Cursor(query(connection, """
+                         SELECT game_id, id, global_player_id, order_number, color, rank, points
+                         FROM player ORDER BY game_id, id
+                         """));
+                 Cursor turns = new Cursor(query(connection, """
+                         SELECT game_id, id, player_id, turn_number, start_timestamp, end_timestamp
+                         FROM turn ORDER BY game_id, player_id, id
+                         """));
+                 Cursor rolls = new Cursor(query(connection, """
+                         SELECT game_id, id, turn_id, number, player_index
+                         FROM roll ORDER BY game_id, id
+                         """))) {
+                while (games.next()) {
+                    int gameId = games.getInt(1);
+                    consumer.accept(GameTransferRecordDTO.game(gameId, games.getString(2), games.getLong(3),
+                            nullableLong(games, 4)));
+                    for (ResultSet rs = players.of(gameId); rs != null; rs = players.of(gameId)) {
+                        consumer.accept(GameTransferRecordDTO.player(rs.getInt(2), rs.getInt(3), rs.getInt(4),
+                                rs.getString(5), nullableInt(rs, 6), nullableInt(rs, 7)));
+                    }
+                    for (ResultSet rs = turns.of(gameId); rs != null; rs = turns.of(gameId)) {
+                        consumer.accept(GameTransferRecordDTO.turn(rs.getInt(2), rs.getInt(3), rs.getInt(4),
+                                rs.getLong(5), rs.getLong(6)));
+                    }
+                    for (ResultSet rs = rolls.of(gameId); rs != null; rs = rolls.of(gameId)) {
+                        consumer.accept(GameTransferRecordDTO.roll(rs.getInt(2), nullableInt(rs, 3), rs.getInt(4),
+                                rs.getInt(5)));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static ResultSet query(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(FETCH_SIZE);
+        statement.closeOnCompletion();
+        return statement.executeQuery();
+    }
+
+    private static Integer nullableInt(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * A result set ordered by the game id in its first column, handing out the rows of one game at a time.
+     */
+    private static final class Cursor implements AutoCloseable {
+
+        private final ResultSet resultSet;
+        private boolean pending;
+        private boolean exhausted;
+
+        private Cursor(ResultSet resultSet) {
+            this.resultSet = resultSet;
+        }
+
+        /**
+         * Moves to the next row of the game and returns the result set positioned on it, or null once the rows of the
+         * game are over. Rows of games before it, whose game no longer exists, are skipped.
+         */
+        ResultSet of(int gameId) throws SQLException {
+            while (!exhausted) {
+                if (!pending && !resultSet.next()) {
+                    exhausted = true;
+                    return null;
+                }
+                int rowGameId = resultSet.getInt(1);
+                if (rowGameId < gameId) {
+                    pending = false;
+                    continue;
+                }
+                if (rowGameId > gameId) {
+                    pending = true;
+                    return null;
+                }
+                pending = false;
+                return resultSet;
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            resultSet.close();
+        }
+    }
+}
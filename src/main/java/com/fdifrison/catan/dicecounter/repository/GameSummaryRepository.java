@@ -0,0 +1,87 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import com.fdifrison.catan.dicecounter.dto.GameSummaryDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads game summaries with a single query, without loading the player, roll and turn graph of each game.
+ */
+@Repository
+public class GameSummaryRepository {
+
+    // Unit separator, cannot appear in a player name typed by a user
+    private static final String NAME_SEPARATOR = "\u001F";
+
+    private static final String SELECT = """
+            SELECT g.id, g.name, g.start_timestamp, g.end_timestamp,
+                   (SELECT group_concat(gp.name, char(31) ORDER BY p.order_number)
+                    FROM player p JOIN global_player gp ON gp.id = p.global_player_id
+                    WHERE p.game_id = g.id) AS player_names,
+                   (SELECT gp.name
+                    FROM player p JOIN global_player gp ON gp.id = p.global_player_id
+                    WHERE p.game_id = g.id AND p.rank = 1
+                    ORDER BY p.order_number LIMIT 1) AS winner,
+                   (SELECT COUNT(*) FROM roll r WHERE r.game_id = g.id) AS roll_count
+            FROM game g
+            """;
+
+    private static final String ORDER = " ORDER BY g.start_timestamp DESC, g.id DESC";
+
+    private static final String AFTER = " WHERE (g.start_timestamp, g.id) < (?, ?)";
+
+    private static final RowMapper<GameSummaryDTO> ROW_MAPPER = (rs, rowNum) -> {
+        long endTimestamp = rs.getLong("end_timestamp");
+        boolean ended = !rs.wasNull();
+        String playerNames = rs.getString("player_names");
+        return new GameSummaryDTO(
+                rs.getInt("id"),
+                rs.getString("name"),
+                Instant.ofEpochMilli(rs.getLong("start_timestamp")),
+                ended ? Instant.ofEpochMilli(endTimestamp) : null,
+                playerNames != null ? Arrays.asList(playerNames.split(NAME_SEPARATOR)) : List.of(),
+                rs.getString("winner"),
+                rs.getLong("roll_count"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GameSummaryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<GameSummaryDTO> findPage(GameCursor after, int limit) {
+        if (after == null) {
+            return jdbcTemplate.query(SELECT + ORDER + " LIMIT ?", ROW_MAPPER, limit);
+        }
+        return jdbcTemplate.query(SELECT + AFTER + ORDER + " LIMIT ?", ROW_MAPPER,
+                after.startTimestamp(), after.id(), limit);
+    }
+
+    /**
+     * Hands every game after the cursor to the consumer as soon as its row is read from the result set.
+     */
+    public void forEach(GameCursor after, Consumer<GameSummaryDTO> consumer) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT;
+        if (after != null) {
+            sql += AFTER;
+            args.add(after.startTimestamp());
+            args.add(after.id());
+        }
+        jdbcTemplate.query(sql + ORDER, rs -> {
+            consumer.accept(ROW_MAPPER.mapRow(rs, rs.getRow()));
+        }, args.toArray());
+    }
+
+    public static GameCursor cursorOf(GameSummaryDTO game) {
+        return new GameCursor(game.startTimestamp().toEpochMilli(), game.id());
+    }
+}
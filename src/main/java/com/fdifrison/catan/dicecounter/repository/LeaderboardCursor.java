@@ -0,0 +1,30 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the leaderboard, ordered by {@code (wins, total_points, global_player_id)} descending, together
+ * with the position of that entry so the next page keeps counting. Exposed to clients as an opaque token.
+ */
+public record LeaderboardCursor(int wins, int totalPoints, int globalPlayerId, int position) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, Integer.toString(wins), Integer.toString(totalPoints),
+                Integer.toString(globalPlayerId), Integer.toString(position));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static LeaderboardCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\|", -1);
+            return new LeaderboardCursor(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                    Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import com.fdifrison.catan.dicecounter.dto.LeaderboardEntryDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reads the league table from the {@code player_stats} aggregate. The order is the one of
+ * {@code idx_player_stats_leaderboard}, so a page walks the index from the cursor and reads only its own rows, however
+ * many players and games there are.
+ */
+@Repository
+public class LeaderboardRepository {
+
+    /**
+     * A leaderboard row with the keys of its position, which the caller needs to build the cursor of the next page.
+     */
+    public record Row(LeaderboardEntryDTO entry, int totalPoints) {
+
+        public LeaderboardCursor cursor() {
+            return new LeaderboardCursor(entry.wins(), totalPoints, entry.globalPlayerId(), entry.position());
+        }
+    }
+
+    private static final String SELECT = """
+            SELECT ps.global_player_id, gp.name, ps.games_played, ps.wins, ps.total_points, ps.scored_games,
+                   ps.ranked_games, ps.rank_sum
+            FROM player_stats ps JOIN global_player gp ON gp.id = ps.global_player_id
+            WHERE ps.games_played > 0
+            """;
+
+    private static final String ORDER = " ORDER BY ps.wins DESC, ps.total_points DESC, ps.global_player_id DESC";
+
+    private static final String AFTER = " AND (ps.wins, ps.total_points, ps.global_player_id) < (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LeaderboardRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Row> findPage(LeaderboardCursor after, int limit) {
+        int firstPosition = after != null ? after.position() + 1 : 1;
+        return jdbcTemplate.query(
+                after != null ? SELECT + AFTER + ORDER + " LIMIT ?" : SELECT + ORDER + " LIMIT ?",
+                (rs, rowNum) -> {
+                    int gamesPlayed = rs.getInt("games_played");
+                    int totalPoints = rs.getInt("total_points");
+                    int scoredGames = rs.getInt("scored_games");
+                    int rankedGames = rs.getInt("ranked_games");
+                    return new Row(new LeaderboardEntryDTO(
+                            firstPosition + rowNum,
+                            rs.getInt("global_player_id"),
+                            rs.getString("name"),
+                            gamesPlayed,
+                            rs.getInt("wins"),
+                            rankedGames == 0 ? null : (double) rs.getInt("rank_sum") / rankedGames,
+                            scoredGames == 0 ? null : (double) totalPoints / scoredGames), totalPoints);
+                },
+                after != null
+                        ? new Object[]{after.wins(), after.totalPoints(), after.globalPlayerId(), limit}
+                        : new Object[]{limit});
+    }
+}
@@ -2,6 +2,11 @@ package com.fdifrison.catan.dicecounter.repository;
 
 import com.fdifrison.catan.dicecounter.domain.Player;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface PlayerRepository extends JpaRepository<Player, Integer> {
+    @Query("SELECT p FROM Player p WHERE p.game.id = :gameId ORDER BY p.order")
+    List<Player> findByGameId(Integer gameId);
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import com.fdifrison.catan.dicecounter.domain.PlayerStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PlayerStatsRepository extends JpaRepository<PlayerStats, Integer> {
+}
@@ -0,0 +1,15 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+/**
+ * Turn time totals of one player in a game, read by {@link TurnRepository#findTurnTimesByGameId}.
+ */
+public interface PlayerTurnTimes {
+
+    Integer getPlayerId();
+
+    String getPlayerName();
+
+    long getTotalSeconds();
+
+    long getTurnCount();
+}
@@ -0,0 +1,151 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Streams roll rows to a consumer straight from a forward-only result set, so a pass over every roll of the database
+ * holds a single row at a time. Rolls come grouped by game, in the order they were recorded.
+ */
+@Repository
+public class RollStreamRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    @FunctionalInterface
+    public interface RollConsumer {
+        void accept(int gameId, int number);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RollStreamRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public void forEachRollOfGame(Integer gameId, RollConsumer consumer) {
+        jdbcTemplate.query("SELECT r.game_id, r.number FROM roll r WHERE r.game_id = ? ORDER BY r.id", rs -> {
+            consumer.accept(rs.getInt(1), rs.getInt(2));
+        }, gameId);
+    }
+
+    /**
+     * SQLite walks the player's games in order and sorts the rolls of one game at a time, never the whole history.
+     */
+    public void forEachRollOfGlobalPlayer(Integer globalPlayerId, RollConsumer consumer) {
+        jdbcTemplate.query("""
+                SELECT r.game_id, r.number
+                FROM player p JOIN roll r ON r.game_id = p.game_id AND r.player_index = p.order_number - 1
+                WHERE p.global_player_id = ?
+                ORDER BY p.game_id, r.id
+                """, rs -> {
+            consumer.accept(rs.getInt(1), rs.getInt(2));
+        }, globalPlayerId);
+    }
+
+    /**
+     * The rolls of the global player's games that are not in the archive before its committed length.
+     */
+    public void forEachUnarchivedRollOfGlobalPlayer(Integer globalPlayerId, long archiveLength,
+                                                    RollConsumer consumer) {
+        jdbcTemplate.query("""
+                SELECT r.game_id, r.number
+                FROM player p
+                JOIN game g ON g.id = p.game_id
+                JOIN roll r ON r.game_id = p.game_id AND r.player_index = p.order_number - 1
+                WHERE p.global_player_id = ? AND (g.archive_offset IS NULL OR g.archive_offset >= ?)
+                ORDER BY p.game_id, r.id
+                """, rs -> {
+            consumer.accept(rs.getInt(1), rs.getInt(2));
+        }, globalPlayerId, archiveLength);
+    }
+
+    /**
+     * Passes the games archived before the length to the reader, read through the archive offset index while the
+     * result set is open.
+     */
+    public void readArchivedGames(long archiveLength, Consumer<ArchivedGames> reader) {
+        readArchivedGames("""
+                SELECT archive_offset, id FROM game
+                WHERE archive_offset < ?
+                ORDER BY archive_offset
+                """, archiveLength, reader, archiveLength);
+    }
+
+    /**
+     * Passes the games of the global player archived before the length to the reader, like
+     * {@link #readArchivedGames(long, Consumer)}.
+     */
+    public void readArchivedGamesOfGlobalPlayer(Integer globalPlayerId, long archiveLength,
+                                                Consumer<ArchivedGames> reader) {
+        readArchivedGames("""
+                SELECT g.archive_offset, g.id
+                FROM player p JOIN game g ON g.id = p.game_id
+                WHERE p.global_player_id = ? AND g.archive_offset < ?
+                ORDER BY g.archive_offset
+                """, archiveLength, reader, globalPlayerId, archiveLength);
+    }
+
+    private void readArchivedGames(String sql, long archiveLength, Consumer<ArchivedGames> reader, Object... args) {
+        jdbcTemplate.query(sql, rs -> {
+            reader.accept(new ArchivedGames(archiveLength, new Iterator<>() {
+                private Boolean hasNext;
+
+                @Override
+                public boolean hasNext() {
+                    if (hasNext == null) {
+                        try {
+                            hasNext = rs.next();
+                        } catch (SQLException e) {
+                            throw jdbcTemplate.getExceptionTranslator().translate("archived games", sql, e);
+                        }
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public ArchivedGames.Entry next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    hasNext = null;
+                    try {
+                        return new ArchivedGames.Entry(rs.getLong(1), rs.getInt(2));
+                    } catch (SQLException e) {
+                        throw jdbcTemplate.getExceptionTranslator().translate("archived games", sql, e);
+                    }
+                }
+            }));
+            return null;
+        }, args);
+    }
+
+    public void forEachRoll(RollConsumer consumer) {
+        jdbcTemplate.query("SELECT r.game_id, r.number FROM roll r ORDER BY r.game_id, r.id", rs -> {
+            consumer.accept(rs.getInt(1), rs.getInt(2));
+        });
+    }
+
+    /**
+     * The rolls of the games that are not in the archive before its committed length, found through the archive
+     * offset index rather than by a pass over every game.
+     */
+    public void forEachUnarchivedRoll(long archiveLength, RollConsumer consumer) {
+        jdbcTemplate.query("""
+                SELECT r.game_id, r.number
+                FROM roll r
+                WHERE r.game_id IN (SELECT id FROM game WHERE archive_offset IS NULL
+                                    UNION ALL
+                                    SELECT id FROM game WHERE archive_offset >= ?)
+                ORDER BY r.game_id, r.id
+                """, rs -> {
+            consumer.accept(rs.getInt(1), rs.getInt(2));
+        }, archiveLength);
+    }
+}
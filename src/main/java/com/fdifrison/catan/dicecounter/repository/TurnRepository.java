@@ -7,6 +7,21 @@ import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface TurnRepository extends JpaRepository<Turn, Integer> {
-    @Query("SELECT t FROM Turn t WHERE t.game.id = :gameId")
-    List<Turn> findByGameId(Integer gameId);
+    /**
+     * Turn time totals per player of the game, slowest first. Each turn counts in whole seconds.
+     */
+    @Query(value = """
+            SELECT p.id AS playerId, gp.name AS playerName,
+                   SUM((t.end_timestamp - t.start_timestamp) / 1000) AS totalSeconds, COUNT(*) AS turnCount
+            FROM turn t
+            JOIN player p ON p.id = t.player_id
+            JOIN global_player gp ON gp.id = p.global_player_id
+            WHERE t.game_id = :gameId
+            GROUP BY p.id, gp.name, p.order_number
+            ORDER BY totalSeconds DESC, p.order_number
+            """, nativeQuery = true)
+    List<PlayerTurnTimes> findTurnTimesByGameId(Integer gameId);
+
+    @Query("SELECT MAX(t.turnNumber) FROM Turn t WHERE t.game.id = :gameId")
+    Integer findMaxTurnNumberByGameId(Integer gameId);
 }
\ No newline at end of file
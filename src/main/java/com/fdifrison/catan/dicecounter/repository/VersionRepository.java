@@ -0,0 +1,46 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * The change counters behind conditional requests: {@code game.version} for the detail of a game and the single
+ * {@code data_version} row for the game list. Both are bumped in the transaction making the change, so a reader sees
+ * the counter and the data move together.
+ */
+@Repository
+public class VersionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Long> findGameVersion(Integer gameId) {
+        return jdbcTemplate.queryForList("SELECT version FROM game WHERE id = ?", Long.class, gameId).stream()
+                .findFirst();
+    }
+
+    public long getDataVersion() {
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM data_version WHERE id = 1", Long.class);
+        return version != null ? version : 0;
+    }
+
+    /**
+     * Bumps the version of the game and the data version, returning the rows written. Returns 0, bumping nothing, when
+     * the game does not exist.
+     */
+    public int bumpGame(Integer gameId) {
+        if (jdbcTemplate.update("UPDATE game SET version = version + 1 WHERE id = ?", gameId) == 0) {
+            return 0;
+        }
+        return 1 + bumpData();
+    }
+
+    public int bumpData() {
+        return jdbcTemplate.update("UPDATE data_version SET version = version + 1 WHERE id = 1");
+    }
+}
@@ -0,0 +1,124 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.config.SnapshotReplica;
+import com.fdifrison.catan.dicecounter.domain.DiceFairness;
+import com.fdifrison.catan.dicecounter.domain.DiceHistogram;
+import com.fdifrison.catan.dicecounter.dto.DiceFairnessDTO;
+import com.fdifrison.catan.dicecounter.dto.DiceFrequencyDTO;
+import com.fdifrison.catan.dicecounter.repository.GameArchive;
+import com.fdifrison.catan.dicecounter.repository.GameRepository;
+import com.fdifrison.catan.dicecounter.repository.GlobalPlayerRepository;
+import com.fdifrison.catan.dicecounter.repository.RollStreamRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reports how the rolled numbers compare with two fair dice. Every report is a single pass over the roll rows, which
+ * are streamed into a {@link DiceFairness} accumulator and never loaded as a list.
+ * <p>
+ * The reports over many games read the archived ones from the memory-mapped {@link GameArchive} and only the rows of
+ * the games it does not hold. The committed archive length is taken before the transaction's first query, which
+ * starts its read snapshot: a game archived later has no offset below that length in the snapshot and is read from
+ * its rows. The segments read are the ones the snapshot records, removed since or not, so a game un-archived
+ * concurrently is counted from its segment or from its rows, never both.
+ */
+@Service
+public class DiceFairnessService {
+
+    private final RollStreamRepository rollStreamRepository;
+    private final GameRepository gameRepository;
+    private final GlobalPlayerRepository globalPlayerRepository;
+    private final GameArchive gameArchive;
+
+    public DiceFairnessService(RollStreamRepository rollStreamRepository, GameRepository gameRepository,
+                               GlobalPlayerRepository globalPlayerRepository, GameArchive gameArchive) {
+        this.rollStreamRepository = rollStreamRepository;
+        this.gameRepository = gameRepository;
+        this.globalPlayerRepository = globalPlayerRepository;
+        this.gameArchive = gameArchive;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<DiceFairnessDTO> getGameFairness(Integer gameId) {
+        if (!gameRepository.existsById(gameId)) {
+            return Optional.empty();
+        }
+        DiceFairness fairness = new DiceFairness();
+        rollStreamRepository.forEachRollOfGame(gameId, fairness::accept);
+        return Optional.of(toDto(fairness));
+    }
+
+    /**
+     * The rolls of the global player across their games; a run without a 7 counts the player's own rolls of a game.
+     */
+    @Transactional(readOnly = true)
+    public Optional<DiceFairnessDTO> getPlayerFairness(Integer globalPlayerId) {
+        long archiveLength = getArchiveLength();  // Before the first query, see the class comment
+        if (!globalPlayerRepository.existsById(globalPlayerId)) {
+            return Optional.empty();
+        }
+        DiceFairness fairness = new DiceFairness();
+        if (archiveLength == 0) {
+            rollStreamRepository.forEachRollOfGlobalPlayer(globalPlayerId, fairness::accept);
+            return Optional.of(toDto(fairness));
+        }
+        rollStreamRepository.readArchivedGamesOfGlobalPlayer(globalPlayerId, archiveLength, games ->
+                gameArchive.forEachGame(games, (segment, gameId) -> {
+                    int playerIndex = segment.indexOf(globalPlayerId);
+                    if (playerIndex < 0) {
+                        return;
+                    }
+                    for (int roll = 0; roll < segment.getRollCount(); roll++) {
+                        if (segment.getRollPlayerIndex(roll) == playerIndex) {
+                            fairness.accept(gameId, segment.getNumber(roll));
+                        }
+                    }
+                }));
+        rollStreamRepository.forEachUnarchivedRollOfGlobalPlayer(globalPlayerId, archiveLength, fairness::accept);
+        return Optional.of(toDto(fairness));
+    }
+
+    @Transactional(readOnly = true)
+    public DiceFairnessDTO getGlobalFairness() {
+        long archiveLength = getArchiveLength();
+        DiceFairness fairness = new DiceFairness();
+        if (archiveLength == 0) {
+            rollStreamRepository.forEachRoll(fairness::accept);
+            return toDto(fairness);
+        }
+        rollStreamRepository.readArchivedGames(archiveLength, games ->
+                gameArchive.forEachGame(games, (segment, gameId) -> {
+                    for (int roll = 0; roll < segment.getRollCount(); roll++) {
+                        fairness.accept(gameId, segment.getNumber(roll));
+                    }
+                }));
+        rollStreamRepository.forEachUnarchivedRoll(archiveLength, fairness::accept);
+        return toDto(fairness);
+    }
+
+    /**
+     * The archive length the rows being read agree with: on the snapshot replica, the length before the snapshot was
+     * taken, since the games archived after it have no offset in its rows.
+     */
+    private long getArchiveLength() {
+        return SnapshotReplica.reading()
+                .map(SnapshotReplica.Snapshot::archiveLength)
+                .orElseGet(gameArchive::getCommittedLength);
+    }
+
+    private static DiceFairnessDTO toDto(DiceFairness fairness) {
+        DiceHistogram histogram = fairness.getHistogram();
+        long rolls = histogram.total();
+        List<DiceFrequencyDTO> frequencies = new ArrayList<>(DiceHistogram.SIZE);
+        for (int number = DiceHistogram.MIN_NUMBER; number <= DiceHistogram.MAX_NUMBER; number++) {
+            frequencies.add(new DiceFrequencyDTO(number, histogram.count(number),
+                    rolls * DiceHistogram.probability(number)));
+        }
+        return new DiceFairnessDTO(rolls, frequencies, histogram.chiSquare(), histogram.chiSquarePValue(),
+                fairness.getLongestRunWithoutSeven(), fairness.getLongestRunGameId());
+    }
+}
@@ -0,0 +1,294 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.config.ArchiveProperties;
+import com.fdifrison.catan.dicecounter.config.LeagueContext;
+import com.fdifrison.catan.dicecounter.config.LeagueOpenedEvent;
+import com.fdifrison.catan.dicecounter.config.LeagueScoped;
+import com.fdifrison.catan.dicecounter.domain.GameSegment;
+import com.fdifrison.catan.dicecounter.repository.GameArchive;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Copies every finished game into the {@link GameArchive} as a {@link GameSegment}, so analytics over the whole history
+ * scan a few bytes per roll and turn of a memory-mapped file instead of the roll and turn rows. A game is archived
+ * once its end has committed, and taken out of the archive again when a turn is recorded after its end or it is
+ * deleted.
+ * <p>
+ * The rows stay the source of truth, for finished games too, and the archive is a derived copy that adds to the
+ * storage. The archive file is written outside of SQLite's transactions: a crash can tear it and recovery drops what
+ * it cannot trust, which is only safe while the rows can archive the games again. The replica snapshots, the exports
+ * and backups of the database file carry the rows only, and the game details, exports and turn times need the row
+ * ids and timestamps that a segment leaves out.
+ * <p>
+ * Archiving runs on a single thread. Each batch appends its segments and records their offsets in one transaction;
+ * the segments become visible to readers only once it has committed. On startup the archive is reconciled with the
+ * recorded offsets, which repairs whatever a crash left half done, and the ended games not archived yet are archived.
+ * The archive of a league is recovered each time the league is opened.
+ */
+@Component
+@LeagueScoped
+public class GameArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(GameArchiver.class);
+
+    private final GameArchive gameArchive;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final String league = LeagueContext.current();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("game-archiver").daemon().factory());
+
+    public GameArchiver(GameArchive gameArchive, JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager, ArchiveProperties properties) {
+        this.gameArchive = gameArchive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(properties.batchSize(), 1);
+    }
+
+    @EventListener({ApplicationReadyEvent.class, LeagueOpenedEvent.class})
+    public void start() {
+        if (!gameArchive.isEnabled()) {
+            return;
+        }
+        execute(() -> {
+            try {
+                recover();
+            } catch (RuntimeException e) {
+                log.error("Game archive recovery failed, analytics read the roll rows only", e);
+                return;
+            }
+            archivePending();
+        });
+    }
+
+    /**
+     * Archives the game once the transaction that ended it has committed.
+     */
+    @TransactionalEventListener
+    public void onGameEvent(GameEvent event) {
+        if (event.last() && gameArchive.isEnabled()) {
+            submit(() -> archive(List.of(event.gameId())));
+        }
+    }
+
+    /**
+     * Schedules the archiving of every ended game that is not archived yet, such as imported ones.
+     */
+    public void schedulePending() {
+        if (gameArchive.isEnabled()) {
+            submit(this::archivePending);
+        }
+    }
+
+    /**
+     * Takes the game out of the archive in the current transaction, since its rows are about to change. Its segment is
+     * removed once the transaction commits and the game, if it still exists, is archived again. Returns the rows
+     * written.
+     */
+    public int unarchive(Integer gameId) {
+        if (!gameArchive.isEnabled()) {
+            return 0;
+        }
+        List<Long> offsets = jdbcTemplate.queryForList(
+                "SELECT archive_offset FROM game WHERE id = ? AND archive_offset IS NOT NULL", Long.class, gameId);
+        if (offsets.isEmpty()) {
+            return 0;
+        }
+        int rows = jdbcTemplate.update("UPDATE game SET archive_offset = NULL WHERE id = ?", gameId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                gameArchive.markRemoved(offsets.getFirst());
+                submit(() -> archive(List.of(gameId)));
+            }
+        });
+        return rows;
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void submit(Runnable task) {
+        execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Archiving failed, the games stay on the roll rows: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Runs the task on the archiver's thread, on its league.
+     */
+    private void execute(Runnable task) {
+        executor.execute(() -> LeagueContext.run(league, task));
+    }
+
+    /**
+     * Keeps the segments the games point to and removes the others, forgets the offsets of games whose segment is
+     * gone, and cuts the segments after the last kept one off the end of the file: removed ones, and one torn by a
+     * crash. An archive no game points to, such as one in an older segment format, is emptied.
+     */
+    private void recover() {
+        Map<Integer, Long> offsets = new HashMap<>();
+        jdbcTemplate.query("SELECT id, archive_offset FROM game WHERE archive_offset IS NOT NULL",
+                rs -> {
+                    offsets.put(rs.getInt(1), rs.getLong(2));
+                });
+        List<Long> orphans = new ArrayList<>();
+        long[] end = {0};  // Of the last kept segment
+        gameArchive.forEachEntry(Long.MAX_VALUE, (gameId, offset, size) -> {
+            if (gameId == GameSegment.REMOVED) {
+                return;
+            }
+            Long recorded = offsets.get(gameId);
+            if (recorded != null && recorded == offset) {
+                offsets.remove(gameId);
+                end[0] = offset + size;
+            } else {
+                orphans.add(offset);
+            }
+        });
+        orphans.forEach(gameArchive::markRemoved);
+        if (!offsets.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "UPDATE game SET archive_offset = NULL WHERE id = ?",
+                    offsets.keySet().stream().map(gameId -> new Object[]{gameId}).toList()));
+        }
+        if (end[0] < gameArchive.getSize()) {
+            log.info("Cutting {} bytes of removed or torn segments off the game archive at {}",
+                    gameArchive.getSize() - end[0], end[0]);
+        }
+        gameArchive.truncate(end[0]);
+        gameArchive.commit(end[0]);
+        log.info("Game archive recovered: {} bytes, {} orphan segments removed, {} games to archive again",
+                end[0], orphans.size(), offsets.size());
+    }
+
+    private void archivePending() {
+        int archived = 0;
+        int lastGameId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Integer> gameIds = jdbcTemplate.queryForList("""
+                    SELECT id FROM game
+                    WHERE archive_offset IS NULL AND end_timestamp IS NOT NULL AND id > ?
+                    ORDER BY id LIMIT ?
+                    """, Integer.class, lastGameId, batchSize);
+            if (gameIds.isEmpty()) {
+                break;
+            }
+            archived += archive(gameIds);
+            lastGameId = gameIds.getLast();
+        }
+        if (archived > 0) {
+            log.info("Archived {} games, the game archive holds {} bytes", archived, gameArchive.getSize());
+        }
+    }
+
+    /**
+     * Archives the games that are ended and not archived yet in one transaction, returning how many were.
+     */
+    private int archive(List<Integer> gameIds) {
+        List<Long> appended = new ArrayList<>(gameIds.size());
+        Integer archived = transactionTemplate.execute(status -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completionStatus) {
+                    if (completionStatus == STATUS_COMMITTED) {
+                        gameArchive.commit(gameArchive.getSize());
+                    } else {
+                        appended.forEach(gameArchive::markRemoved);
+                    }
+                }
+            });
+            for (Integer gameId : gameIds) {
+                byte[] segment = encode(gameId);
+                if (segment == null) {
+                    continue;
+                }
+                long offset = gameArchive.append(segment);
+                appended.add(offset);
+                jdbcTemplate.update("UPDATE game SET archive_offset = ? WHERE id = ?", offset, gameId);
+            }
+            return appended.size();
+        });
+        return archived != null ? archived : 0;
+    }
+
+    /**
+     * The segment of the game, or null when it is not ended, already archived or cannot be archived.
+     */
+    private byte[] encode(Integer gameId) {
+        Integer pending = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM game
+                WHERE id = ? AND end_timestamp IS NOT NULL AND archive_offset IS NULL
+                """, Integer.class, gameId);
+        if (pending == null || pending == 0) {
+            return null;
+        }
+        Map<Integer, Integer> globalPlayerIds = new HashMap<>();  // Key: player index
+        jdbcTemplate.query("SELECT order_number - 1, global_player_id FROM player WHERE game_id = ?", rs -> {
+            globalPlayerIds.put(rs.getInt(1), rs.getInt(2));
+        }, gameId);
+        int playerCount = globalPlayerIds.keySet().stream().mapToInt(index -> index + 1).max().orElse(0);
+        if (playerCount > GameSegment.MAX_PLAYERS || globalPlayerIds.keySet().stream().anyMatch(index -> index < 0)) {
+            log.warn("Game {} is not archived: player orders must be between 1 and {}", gameId,
+                    GameSegment.MAX_PLAYERS);
+            return null;
+        }
+        int[] players = new int[playerCount];
+        globalPlayerIds.forEach((index, globalPlayerId) -> players[index] = globalPlayerId);
+
+        List<int[]> rolls = jdbcTemplate.query("SELECT number, player_index FROM roll WHERE game_id = ? ORDER BY id",
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)}, gameId);
+        byte[] numbers = new byte[rolls.size()];
+        int[] rollPlayerIndexes = new int[rolls.size()];
+        for (int i = 0; i < rolls.size(); i++) {
+            numbers[i] = (byte) rolls.get(i)[0];
+            rollPlayerIndexes[i] = rolls.get(i)[1];
+        }
+
+        List<long[]> turns = jdbcTemplate.query("""
+                SELECT p.order_number - 1, t.end_timestamp - t.start_timestamp
+                FROM turn t JOIN player p ON p.id = t.player_id
+                WHERE t.game_id = ?
+                ORDER BY t.id
+                """, (rs, rowNum) -> new long[]{rs.getInt(1), rs.getLong(2)}, gameId);
+        int[] turnPlayerIndexes = new int[turns.size()];
+        long[] turnDurations = new long[turns.size()];
+        for (int i = 0; i < turns.size(); i++) {
+            turnPlayerIndexes[i] = (int) turns.get(i)[0];
+            turnDurations[i] = turns.get(i)[1];
+        }
+
+        try {
+            return GameSegment.encode(gameId, players, numbers, rollPlayerIndexes, turnPlayerIndexes, turnDurations);
+        } catch (IllegalArgumentException e) {
+            log.warn("Game {} is not archived: {}", gameId, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.RollDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnDTO;
+
+import java.util.List;
+
+/**
+ * A change of a live game, published by {@link GameService} and sent to the game's spectators once its transaction
+ * has committed.
+ *
+ * @param name    the SSE event name: {@code turn}, {@code roll} or {@code end}
+ * @param payload serialized as the event data
+ * @param last    whether the game's event streams end after this event
+ */
+public record GameEvent(Integer gameId, String name, Object payload, boolean last) {
+
+    public static GameEvent turn(Integer gameId, TurnDTO turn) {
+        return new GameEvent(gameId, "turn", turn, false);
+    }
+
+    public static GameEvent roll(Integer gameId, RollDTO roll) {
+        return new GameEvent(gameId, "roll", roll, false);
+    }
+
+    /**
+     * The ended game with its players' ranks and points, without the rolls and turns spectators already received.
+     */
+    public static GameEvent end(GameDTO game) {
+        return new GameEvent(game.id(), "end", game.withRolls(List.of()).withTurns(List.of()), true);
+    }
+}
@@ -0,0 +1,148 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.config.LeagueScoped;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams committed {@link GameEvent}s to the spectators of a game as Server-Sent Events.
+ * <p>
+ * An event is serialized once and the same payload is queued for every subscriber, so publishing neither reads the
+ * database nor waits on a socket. Each subscriber is sent its queue on a virtual thread of its own; one that falls
+ * {@code app.events.queue-capacity} events behind is disconnected, and its client reconnects and reloads the game.
+ */
+@Component
+@LeagueScoped
+public class GameEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(GameEventBroadcaster.class);
+
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final Duration timeout;
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("game-events-", 0).factory());
+
+    public GameEventBroadcaster(ObjectMapper objectMapper,
+                                @Value("${app.events.queue-capacity:32}") int queueCapacity,
+                                @Value("${app.events.timeout:30m}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+    }
+
+    public SseEmitter subscribe(Integer gameId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(gameId, emitter);
+        subscribers.computeIfAbsent(gameId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onGameEvent(GameEvent event) {
+        Set<Subscriber> gameSubscribers = subscribers.get(event.gameId());
+        if (gameSubscribers == null || gameSubscribers.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> payload;
+        try {
+            payload = SseEmitter.event()
+                    .name(event.name())
+                    .data(objectMapper.writeValueAsString(event.payload()))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Message message = new Message(payload, event.last());
+        gameSubscribers.forEach(subscriber -> subscriber.offer(message));
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.values().forEach(gameSubscribers -> gameSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.gameId, (gameId, gameSubscribers) -> {
+            gameSubscribers.remove(subscriber);
+            return gameSubscribers.isEmpty() ? null : gameSubscribers;
+        });
+    }
+
+    private record Message(Set<ResponseBodyEmitter.DataWithMediaType> payload, boolean last) {
+    }
+
+    private final class Subscriber {
+
+        private final Integer gameId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(Integer gameId, SseEmitter emitter) {
+            this.gameId = gameId;
+            this.emitter = emitter;
+        }
+
+        void offer(Message message) {
+            if (!queue.offer(message)) {
+                log.info("Dropping slow subscriber of gameId: {}", gameId);
+                unsubscribe(this);
+                emitter.complete();
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                Message message;
+                while ((message = queue.poll()) != null) {
+                    emitter.send(message.payload());
+                    if (message.last()) {
+                        unsubscribe(this);
+                        emitter.complete();
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed
+                unsubscribe(this);
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // A message queued after the last poll found the sender still running
+            if (!queue.isEmpty() && sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+    }
+}
@@ -1,38 +1,65 @@
 package com.fdifrison.catan.dicecounter.service;
 
+import com.fdifrison.catan.dicecounter.domain.DiceHistogram;
 import com.fdifrison.catan.dicecounter.domain.Game;
 import com.fdifrison.catan.dicecounter.domain.GlobalPlayer;
 import com.fdifrison.catan.dicecounter.domain.Player;
 import com.fdifrison.catan.dicecounter.domain.Roll;
 import com.fdifrison.catan.dicecounter.domain.Turn;
+import com.fdifrison.catan.dicecounter.dto.CompactGameDTO;
 import com.fdifrison.catan.dicecounter.dto.EndGameDTO;
 import com.fdifrison.catan.dicecounter.dto.GameCreateDTO;
 import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GamePageDTO;
+import com.fdifrison.catan.dicecounter.dto.GameSessionStatsDTO;
+import com.fdifrison.catan.dicecounter.dto.GameSummaryDTO;
 import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.LeaderboardEntryDTO;
+import com.fdifrison.catan.dicecounter.dto.LeaderboardPageDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerCreateDTO;
 import com.fdifrison.catan.dicecounter.dto.PlayerEndDTO;
 import com.fdifrison.catan.dicecounter.dto.PlayerStatsDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerTurnTimeDTO;
+import com.fdifrison.catan.dicecounter.dto.RollDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnBatchCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnBatchResultDTO;
 import com.fdifrison.catan.dicecounter.dto.TurnCreateDTO;
 import com.fdifrison.catan.dicecounter.dto.TurnDTO;
 import com.fdifrison.catan.dicecounter.mapper.GameMapper;
 import com.fdifrison.catan.dicecounter.mapper.GlobalPlayerMapper;
 import com.fdifrison.catan.dicecounter.mapper.PlayerMapper;
 import com.fdifrison.catan.dicecounter.mapper.TurnMapper;
+import com.fdifrison.catan.dicecounter.repository.CompactGameRepository;
+import com.fdifrison.catan.dicecounter.repository.GameCursor;
 import com.fdifrison.catan.dicecounter.repository.GameRepository;
+import com.fdifrison.catan.dicecounter.repository.GameSummaryRepository;
 import com.fdifrison.catan.dicecounter.repository.GlobalPlayerRepository;
+import com.fdifrison.catan.dicecounter.repository.LeaderboardCursor;
+import com.fdifrison.catan.dicecounter.repository.LeaderboardRepository;
 import com.fdifrison.catan.dicecounter.repository.PlayerRepository;
 import com.fdifrison.catan.dicecounter.repository.RollRepository;
 import com.fdifrison.catan.dicecounter.repository.TurnRepository;
+import com.fdifrison.catan.dicecounter.repository.VersionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.Valid;
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Validated
@@ -41,6 +68,8 @@ public class GameService {
 
     private static final Logger log = LoggerFactory.getLogger(GameService.class);
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final GameRepository gameRepository;
     private final PlayerRepository playerRepository;
     private final GlobalPlayerRepository globalPlayerRepository;
@@ -50,11 +79,29 @@ public class GameService {
     private final PlayerMapper playerMapper;
     private final GlobalPlayerMapper globalPlayerMapper;
     private final TurnMapper turnMapper;
+    private final PlayerStatsService playerStatsService;
+    private final GameSummaryRepository gameSummaryRepository;
+    private final LeaderboardRepository leaderboardRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final IdAllocator idAllocator;
+    private final GameSessionCache gameSessionCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GameArchiver gameArchiver;
+    private final VersionRepository versionRepository;
+    private final CompactGameRepository compactGameRepository;
+    private final GlobalPlayerCache globalPlayerCache;
 
     public GameService(GameRepository gameRepository, PlayerRepository playerRepository,
                        GlobalPlayerRepository globalPlayerRepository, RollRepository rollRepository,
                        TurnRepository turnRepository, GameMapper gameMapper, PlayerMapper playerMapper,
-                       GlobalPlayerMapper globalPlayerMapper, TurnMapper turnMapper) {
+                       GlobalPlayerMapper globalPlayerMapper, TurnMapper turnMapper,
+                       PlayerStatsService playerStatsService, GameSummaryRepository gameSummaryRepository,
+                       LeaderboardRepository leaderboardRepository, ObjectMapper objectMapper,
+                       EntityManager entityManager, IdAllocator idAllocator,
+                       GameSessionCache gameSessionCache, ApplicationEventPublisher eventPublisher,
+                       GameArchiver gameArchiver, VersionRepository versionRepository,
+                       CompactGameRepository compactGameRepository, GlobalPlayerCache globalPlayerCache) {
         this.gameRepository = gameRepository;
         this.playerRepository = playerRepository;
         this.globalPlayerRepository = globalPlayerRepository;
@@ -64,157 +111,397 @@ public class GameService {
         this.playerMapper = playerMapper;
         this.globalPlayerMapper = globalPlayerMapper;
         this.turnMapper = turnMapper;
+        this.playerStatsService = playerStatsService;
+        this.gameSummaryRepository = gameSummaryRepository;
+        this.leaderboardRepository = leaderboardRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.idAllocator = idAllocator;
+        this.gameSessionCache = gameSessionCache;
+        this.eventPublisher = eventPublisher;
+        this.gameArchiver = gameArchiver;
+        this.versionRepository = versionRepository;
+        this.compactGameRepository = compactGameRepository;
+        this.globalPlayerCache = globalPlayerCache;
     }
 
     @Transactional(readOnly = true)
-    public List<GameDTO> getAllGames() {
-        List<Game> games = gameRepository.findAll();
-        games.forEach(game -> {
-            Hibernate.initialize(game.getPlayers());
-            Hibernate.initialize(game.getRolls());
-            Hibernate.initialize(game.getTurns());
-        });
-        return games.stream()
-                .map(gameMapper::toDto)
-                .collect(Collectors.toList());
+    public GamePageDTO getGames(String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<GameSummaryDTO> games = gameSummaryRepository.findPage(
+                cursor != null ? GameCursor.decode(cursor) : null, pageSize + 1);
+        if (games.size() <= pageSize) {
+            return new GamePageDTO(games, null);
+        }
+        List<GameSummaryDTO> page = games.subList(0, pageSize);
+        return new GamePageDTO(page, GameSummaryRepository.cursorOf(page.getLast()).encode());
+    }
+
+    /**
+     * Returns the league table from the cursor on, best player first. A page costs its own rows whatever the number of
+     * players and games, the ranking is kept up to date by {@code endGame}.
+     */
+    @Transactional(readOnly = true)
+    public LeaderboardPageDTO getLeaderboard(String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<LeaderboardRepository.Row> rows = leaderboardRepository.findPage(
+                cursor != null ? LeaderboardCursor.decode(cursor) : null, pageSize + 1);
+        List<LeaderboardEntryDTO> players = rows.stream()
+                .limit(pageSize)
+                .map(LeaderboardRepository.Row::entry)
+                .toList();
+        return new LeaderboardPageDTO(players,
+                rows.size() > pageSize ? rows.get(pageSize - 1).cursor().encode() : null);
+    }
+
+    /**
+     * Writes the game summaries after the cursor, or all of them when it is null, as newline-delimited JSON, one line
+     * per row as it is read. The output is flushed once per page of rows and at the end, not once per row.
+     */
+    @Transactional(readOnly = true)
+    public void streamGames(GameCursor after, OutputStream outputStream) throws IOException {
+        int[] unflushed = {0};
+        try {
+            gameSummaryRepository.forEach(after, game -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(game));
+                    outputStream.write('\n');
+                    if (++unflushed[0] == MAX_PAGE_SIZE) {
+                        outputStream.flush();
+                        unflushed[0] = 0;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        outputStream.flush();
     }
 
     @Transactional(readOnly = true)
     public Optional<GameDTO> getGameById(Integer id) {
-        return gameRepository.findById(id)
+        ServiceOperationEvent event = ServiceOperationEvent.start("getGameById");
+        Optional<GameDTO> gameDTO = gameRepository.findById(id)
                 .map(game -> {
                     Hibernate.initialize(game.getPlayers());
                     Hibernate.initialize(game.getRolls());
                     Hibernate.initialize(game.getTurns());
                     return gameMapper.toDto(game);
                 });
+        event.gameId = id;
+        event.playerCount = gameDTO.map(game -> game.players().size()).orElse(0);
+        event.commitOnCompletion();
+        return gameDTO;
+    }
+
+    /**
+     * The game in its columnar form, read from the rows without loading the entity graph.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CompactGameDTO> getCompactGameById(Integer id) {
+        ServiceOperationEvent event = ServiceOperationEvent.start("getCompactGameById");
+        Optional<CompactGameDTO> game = compactGameRepository.findById(id);
+        event.gameId = id;
+        event.playerCount = game.map(compact -> compact.players().size()).orElse(0);
+        event.commitOnCompletion();
+        return game;
+    }
+
+    /**
+     * The version of the game alone, enough to answer a conditional request without loading the game.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> getGameVersion(Integer id) {
+        return versionRepository.findGameVersion(id);
+    }
+
+    /**
+     * The version of the game list, bumped whenever a game is created, changed or deleted.
+     */
+    @Transactional(readOnly = true)
+    public long getDataVersion() {
+        return versionRepository.getDataVersion();
     }
 
     @Transactional(readOnly = true)
     public List<GlobalPlayerDTO> getAllGlobalPlayers() {
-        return globalPlayerRepository.findAll().stream()
-                .map(globalPlayerMapper::toDto)
-                .collect(Collectors.toList());
+        return globalPlayerCache.getAll();
     }
 
     @Transactional
     public GlobalPlayerDTO createGlobalPlayer(GlobalPlayerDTO globalPlayerDTO) {
         GlobalPlayer globalPlayer = globalPlayerMapper.toEntity(globalPlayerDTO);
-        globalPlayer.setId(UUID.randomUUID().hashCode());
+        globalPlayer.setId(idAllocator.next(IdAllocator.Sequence.GLOBAL_PLAYER));
         GlobalPlayer savedPlayer = globalPlayerRepository.save(globalPlayer);
+        globalPlayerCache.invalidate();
         return globalPlayerMapper.toDto(savedPlayer);
     }
 
     public long calculateGameDuration(GameDTO game) {
         if (game.endTimestamp() == null || game.startTimestamp() == null) {
-            log.info("Game duration not calculated: endTimestamp={}, startTimestamp={}", game.endTimestamp(), game.startTimestamp());
+            log.debug("Game duration not calculated: endTimestamp={}, startTimestamp={}", game.endTimestamp(), game.startTimestamp());
             return 0L;
         }
         long duration = Duration.between(game.startTimestamp(), game.endTimestamp()).getSeconds();
-        log.info("Calculated game duration: {} seconds", duration);
+        log.debug("Calculated game duration: {} seconds", duration);
         return duration;
     }
 
+    /**
+     * Turn time totals per player, slowest first, or empty when the game does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<PlayerTurnTimeDTO>> getTurnTimes(Integer gameId) {
+        List<PlayerTurnTimeDTO> turnTimes = turnRepository.findTurnTimesByGameId(gameId).stream()
+                .map(times -> new PlayerTurnTimeDTO(times.getPlayerId(), times.getPlayerName(),
+                        times.getTotalSeconds(), times.getTurnCount(),
+                        (double) times.getTotalSeconds() / times.getTurnCount()))
+                .toList();
+        if (turnTimes.isEmpty() && !gameRepository.existsById(gameId)) {
+            return Optional.empty();
+        }
+        return Optional.of(turnTimes);
+    }
+
+    @Transactional(readOnly = true)
     public String findSlowestPlayer(Integer gameId) {
-        List<Turn> turns = turnRepository.findByGameId(gameId);
-        Map<Integer, Long> playerTurnDurations = turns.stream()
-                .collect(Collectors.groupingBy(
-                        turn -> turn.getPlayer().getId(),
-                        Collectors.summingLong(turn ->
-                                Duration.between(turn.getStartTimestamp(), turn.getEndTimestamp()).getSeconds())
-                ));
-
-        return playerTurnDurations.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(entry -> turns.stream()
-                        .filter(t -> t.getPlayer().getId().equals(entry.getKey()))
-                        .findFirst()
-                        .map(t -> t.getPlayer().getGlobalPlayer().getName())
-                        .orElse("Unknown"))
+        return getTurnTimes(gameId).orElse(List.of()).stream()
+                .findFirst()
+                .map(PlayerTurnTimeDTO::playerName)
                 .orElse("No turns recorded");
     }
 
     @Transactional
     public GameDTO createGame(@Valid GameCreateDTO gameCreateDTO) {
-        log.info("Starting createGame at {}", Instant.now());
+        ServiceOperationEvent event = ServiceOperationEvent.start("createGame");
         Game game = gameMapper.toEntity(gameCreateDTO);
-        int gameId = UUID.randomUUID().hashCode();
-        game.setId(gameId);
+        game.setId(idAllocator.next(IdAllocator.Sequence.GAME));
+        List<Integer> globalPlayerIds = gameCreateDTO.players().stream()
+                .map(PlayerCreateDTO::globalPlayerId)
+                .toList();
+        Map<Integer, GlobalPlayerDTO> globalPlayers = globalPlayerCache.getAll(globalPlayerIds);
+        List<Integer> missingIds = globalPlayerIds.stream()
+                .filter(id -> !globalPlayers.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missingIds.isEmpty()) {
+            throw new IllegalArgumentException("Global players not found: " + missingIds);
+        }
         List<Player> players = gameCreateDTO.players().stream()
                 .map(dto -> {
                     Player player = playerMapper.toEntity(dto);
-                    GlobalPlayer globalPlayer = globalPlayerRepository.findById(dto.globalPlayerId())
-                            .orElseThrow(() -> new IllegalArgumentException("Global player not found: " + dto.globalPlayerId()));
-                    player.setGlobalPlayer(globalPlayer);
+                    player.setGlobalPlayer(entityManager.getReference(GlobalPlayer.class, dto.globalPlayerId()));
                     player.setGame(game);
-                    player.setId(UUID.randomUUID().hashCode());
-                    log.info("Created player: id={}, globalPlayerId={}, order={}, color={}",
+                    player.setId(idAllocator.next(IdAllocator.Sequence.PLAYER));
+                    log.debug("Created player: id={}, globalPlayerId={}, order={}, color={}",
                             player.getId(), dto.globalPlayerId(), player.getOrder(), player.getColor());
                     return player;
                 })
                 .collect(Collectors.toList());
         game.setPlayers(players);
-        Game savedGame = gameRepository.save(game);
-        log.info("Finished createGame at {}", Instant.now());
-        return gameMapper.toDto(savedGame);
+        entityManager.persist(game);  // Cascades to the players
+        event.rowsWritten = 1 + players.size();
+        event.rowsWritten += playerStatsService.onGameCreated(players);
+        event.rowsWritten += versionRepository.bumpData();
+        gameSessionCache.put(new GameSessionCache.GameSession(game.getId(), players.stream()
+                .map(player -> new GameSessionCache.SessionPlayer(
+                        player.getId(), player.getGlobalPlayer().getId(), player.getOrder()))
+                .collect(Collectors.toMap(GameSessionCache.SessionPlayer::playerId, player -> player)), 0, false));
+        event.gameId = game.getId();
+        event.playerCount = players.size();
+        event.commitOnCompletion();
+        return gameMapper.toDto(game);
     }
 
     @Transactional
     public TurnDTO recordTurn(Integer gameId, @Valid TurnCreateDTO turnCreateDTO) {
-        log.info("Starting recordTurn for gameId: {} at {}", gameId, Instant.now());
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new IllegalArgumentException("Game not found: " + gameId));
-        Player player = playerRepository.findById(turnCreateDTO.playerId())
+        return appendTurn(gameId, turnCreateDTO);
+    }
+
+    /**
+     * Records a turn in the caller's transaction, which the group-commit writer shares between many turns. A missing
+     * game or player fails only this turn, not the transaction. The game and the player are resolved from the session
+     * cache, so a live game costs no read.
+     */
+    @Transactional(propagation = Propagation.MANDATORY, noRollbackFor = IllegalArgumentException.class)
+    public TurnDTO appendTurn(Integer gameId, TurnCreateDTO turnCreateDTO) {
+        ServiceOperationEvent event = ServiceOperationEvent.start("recordTurn");
+        GameSessionCache.GameSession session = getSession(gameId);
+        GameSessionCache.SessionPlayer player = session.getPlayer(turnCreateDTO.playerId())
                 .orElseThrow(() -> new IllegalArgumentException("Player not found: " + turnCreateDTO.playerId()));
+        event.rowsWritten = bumpLiveGame(session);
+        TurnDTO turnDTO = saveTurn(session, player, turnCreateDTO, event);
+        event.gameId = gameId;
+        event.playerCount = session.getPlayers().size();
+        event.commitOnCompletion();
+        return turnDTO;
+    }
+
+    /**
+     * Records a batch of turns of the same game in one transaction. The game and its players are resolved once and
+     * the inserts are sent as JDBC batches, so replaying a backlog of turns costs a single commit.
+     */
+    @Transactional
+    public List<TurnBatchResultDTO> recordTurns(Integer gameId, @Valid TurnBatchCreateDTO turnBatchCreateDTO) {
+        ServiceOperationEvent event = ServiceOperationEvent.start("recordTurns");
+        log.debug("Recording {} turns for gameId: {}", turnBatchCreateDTO.turns().size(), gameId);
+        GameSessionCache.GameSession session = getSession(gameId);
+        if (turnBatchCreateDTO.turns().stream().anyMatch(turn -> session.getPlayer(turn.playerId()).isPresent())) {
+            event.rowsWritten = bumpLiveGame(session);
+        }
+
+        List<TurnBatchResultDTO> results = new ArrayList<>(turnBatchCreateDTO.turns().size());
+        for (int i = 0; i < turnBatchCreateDTO.turns().size(); i++) {
+            TurnCreateDTO turnCreateDTO = turnBatchCreateDTO.turns().get(i);
+            Optional<GameSessionCache.SessionPlayer> player = session.getPlayer(turnCreateDTO.playerId());
+            if (player.isEmpty()) {
+                results.add(new TurnBatchResultDTO(i, null, "Player not found: " + turnCreateDTO.playerId()));
+                continue;
+            }
+            results.add(new TurnBatchResultDTO(i, saveTurn(session, player.get(), turnCreateDTO, event), null));
+        }
+
+        event.gameId = gameId;
+        event.playerCount = session.getPlayers().size();
+        event.commitOnCompletion();
+        return results;
+    }
+
+    public GameSessionStatsDTO getSessionStats() {
+        return gameSessionCache.getStats();
+    }
+
+    private GameSessionCache.GameSession getSession(Integer gameId) {
+        return gameSessionCache.get(gameId, this::loadSession)
+                .orElseThrow(() -> new IllegalArgumentException("Game not found: " + gameId));
+    }
+
+    /**
+     * Bumps the version of the game before its turns are written. The update takes the write lock, so it also proves
+     * that the game of a cached session still exists: {@code deleteGame} drops the session, but a turn that read it just
+     * before would otherwise write rows of a deleted game. Returns the rows written.
+     */
+    private int bumpLiveGame(GameSessionCache.GameSession session) {
+        int rows = versionRepository.bumpGame(session.getGameId());
+        if (rows == 0) {
+            gameSessionCache.invalidate(session.getGameId());
+            throw new IllegalArgumentException("Game not found: " + session.getGameId());
+        }
+        return rows;
+    }
+
+    private Optional<GameSessionCache.GameSession> loadSession(Integer gameId) {
+        return gameRepository.findById(gameId).map(game -> {
+            Map<Integer, GameSessionCache.SessionPlayer> players = playerRepository.findByGameId(gameId).stream()
+                    .map(player -> new GameSessionCache.SessionPlayer(
+                            player.getId(), player.getGlobalPlayer().getId(), player.getOrder()))
+                    .collect(Collectors.toMap(GameSessionCache.SessionPlayer::playerId, player -> player));
+            Integer currentTurnNumber = turnRepository.findMaxTurnNumberByGameId(gameId);
+            return new GameSessionCache.GameSession(gameId, players, currentTurnNumber != null ? currentTurnNumber : 0,
+                    game.getEndTimestamp() != null);
+        });
+    }
 
+    /**
+     * Saves the turn and its roll, and publishes them to the game's spectators once the transaction commits. The rows
+     * written are added to the event.
+     */
+    private TurnDTO saveTurn(GameSessionCache.GameSession session, GameSessionCache.SessionPlayer player,
+                          TurnCreateDTO turnCreateDTO, ServiceOperationEvent event) {
+        // References only: the session already proved that the game and the player exist
+        Game game = entityManager.getReference(Game.class, session.getGameId());
         Turn turn = turnMapper.toEntity(turnCreateDTO);
-        int turnId = UUID.randomUUID().hashCode();
+        int turnId = idAllocator.next(IdAllocator.Sequence.TURN);
         turn.setId(turnId);
         turn.setGame(game);
-        turn.setPlayer(player);
-
-        Turn savedTurn = turnRepository.save(turn);
+        Player playerReference = entityManager.getReference(Player.class, player.playerId());
+        turn.setPlayer(playerReference);
+        if (session.isEnded()) {
+            if (playerReference.getRollHistogram() != null) {
+                playerReference.setRollHistogram(null);  // Stale now, aggregations fall back to the roll rows
+                event.rowsWritten++;
+            }
+            event.rowsWritten += gameArchiver.unarchive(session.getGameId());
+        }
+        // persist instead of save: the id is assigned, save would merge and select the row first
+        entityManager.persist(turn);
+        event.rowsWritten++;
 
+        RollDTO rollDTO = null;
         if (turnCreateDTO.rollNumber() != null) {
             Roll roll = new Roll();
-            roll.setId(UUID.randomUUID().hashCode());
+            roll.setId(idAllocator.next(IdAllocator.Sequence.ROLL));
             roll.setGame(game);
-            roll.setTurn(savedTurn);
+            roll.setTurn(turn);
             roll.setNumber(turnCreateDTO.rollNumber());
-            roll.setPlayerIndex(player.getOrder() - 1);  // 0-based index
-            log.info("Saved roll: id={}, gameId={}, turnId={}, number={}, playerIndex={}",
-                    roll.getId(), gameId, turnId, roll.getNumber(), roll.getPlayerIndex());
-            rollRepository.save(roll);
+            roll.setPlayerIndex(player.order() - 1);  // 0-based index
+            log.debug("Saved roll: id={}, gameId={}, turnId={}, number={}, playerIndex={}",
+                    roll.getId(), session.getGameId(), turnId, roll.getNumber(), roll.getPlayerIndex());
+            entityManager.persist(roll);
+            event.rowsWritten++;
+            rollDTO = new RollDTO(roll.getId(), turnId, roll.getNumber(), roll.getPlayerIndex());
         }
-
-        log.info("Finished recordTurn for gameId: {} at {}", gameId, Instant.now());
-        return turnMapper.toDto(savedTurn);
+        event.rowsWritten += playerStatsService.onTurnRecorded(player.globalPlayerId(), turn, turnCreateDTO.rollNumber());
+        gameSessionCache.recordTurn(session, turnCreateDTO.turnNumber());
+        TurnDTO turnDTO = turnMapper.toDto(turn);
+        eventPublisher.publishEvent(GameEvent.turn(session.getGameId(), turnDTO));
+        if (rollDTO != null) {
+            eventPublisher.publishEvent(GameEvent.roll(session.getGameId(), rollDTO));
+        }
+        return turnDTO;
     }
 
     @Transactional
     public GameDTO endGame(Integer gameId, @Valid EndGameDTO endGameDTO) {
-        log.info("Starting endGame for gameId: {} at {}", gameId, Instant.now());
-        log.info("Received endGameDTO: {}", endGameDTO);
+        ServiceOperationEvent event = ServiceOperationEvent.start("endGame");
+        log.debug("Received endGameDTO: {}", endGameDTO);
         Game game = gameRepository.findById(gameId)
                 .orElseThrow(() -> new IllegalArgumentException("Game not found: " + gameId));
         game.setEndTimestamp(Instant.now());
+        event.rowsWritten = 1 + versionRepository.bumpGame(gameId);
+        game.setVersion(game.getVersion() + 1);  // Not written by Hibernate
+        gameSessionCache.invalidate(gameId);
+
+        Map<Integer, DiceHistogram> histograms = new HashMap<>();  // Key: player index
+        game.getRolls().forEach(roll -> histograms
+                .computeIfAbsent(roll.getPlayerIndex(), playerIndex -> new DiceHistogram())
+                .add(roll.getNumber()));
+        Set<Integer> updatedPlayerIds = new HashSet<>();  // Hibernate writes the players that changed
+        game.getPlayers().forEach(player -> {
+            DiceHistogram histogram = histograms.getOrDefault(player.getOrder() - 1, new DiceHistogram());
+            if (!histogram.equals(player.getRollHistogram())) {
+                player.setRollHistogram(histogram);
+                updatedPlayerIds.add(player.getId());
+            }
+        });
 
         endGameDTO.players().forEach(playerEnd -> {
             Player player = playerRepository.findById(playerEnd.id())
                     .orElseThrow(() -> new IllegalArgumentException("Player not found: " + playerEnd.id()));
-            log.info("Updating player {} with rank: {}", playerEnd.id(), playerEnd.rank());
+            log.debug("Updating player {} with rank: {}", playerEnd.id(), playerEnd.rank());
+            event.rowsWritten += playerStatsService.onPlayerScored(player, player.getPoints(), playerEnd.points());
+            event.rowsWritten += playerStatsService.onPlayerRanked(player, player.getRank(), playerEnd.rank());
+            if (!Objects.equals(player.getRank(), playerEnd.rank())
+                    || !Objects.equals(player.getPoints(), playerEnd.points())) {
+                updatedPlayerIds.add(player.getId());
+            }
             player.setRank(playerEnd.rank());
             player.setPoints(playerEnd.points());
             playerRepository.save(player);
         });
+        event.rowsWritten += updatedPlayerIds.size();
 
         Game savedGame = gameRepository.save(game);
         Hibernate.initialize(savedGame.getPlayers());
         Hibernate.initialize(savedGame.getRolls());
         Hibernate.initialize(savedGame.getTurns());
         GameDTO gameDTO = gameMapper.toDto(savedGame);
-        log.info("EndGame DTO: endTimestamp={}, startTimestamp={}", gameDTO.endTimestamp(), gameDTO.startTimestamp());
-        log.info("Finished endGame for gameId: {} at {}", gameId, Instant.now());
+        eventPublisher.publishEvent(GameEvent.end(gameDTO));
+        event.gameId = gameId;
+        event.playerCount = savedGame.getPlayers().size();
+        event.commitOnCompletion();
         return gameDTO;
     }
 
@@ -222,82 +509,40 @@ public class GameService {
     public void deleteGame(Integer gameId) {
         Game game = gameRepository.findById(gameId)
                 .orElseThrow(() -> new IllegalArgumentException("Game not found: " + gameId));
+        Set<Integer> globalPlayerIds = game.getPlayers().stream()
+                .map(player -> player.getGlobalPlayer().getId())
+                .collect(Collectors.toSet());
+        ServiceOperationEvent event = ServiceOperationEvent.start("deleteGame");
+        gameSessionCache.invalidate(gameId);
+        event.rowsWritten = gameArchiver.unarchive(gameId);
+        // The delete cascades to the players, turns and rolls
+        event.rowsWritten += 1 + game.getPlayers().size() + game.getTurns().size() + game.getRolls().size();
         gameRepository.delete(game);
+        gameRepository.flush();
+        event.rowsWritten += versionRepository.bumpData();
+        for (Integer globalPlayerId : globalPlayerIds) {
+            event.rowsWritten += playerStatsService.rebuild(globalPlayerId);
+        }
+        event.gameId = gameId;
+        event.playerCount = game.getPlayers().size();
+        event.commitOnCompletion();
     }
 
     @Transactional(readOnly = true)
     public PlayerStatsDTO getPlayerStats(Integer globalPlayerId) {
-        log.info("Calculating stats for globalPlayerId: {}", globalPlayerId);
-
-        // Fetch all games
-        List<Game> games = gameRepository.findAll();
-        games.forEach(game -> {
-            Hibernate.initialize(game.getPlayers());
-            Hibernate.initialize(game.getRolls());
-            Hibernate.initialize(game.getTurns());
-        });
-
-        // Filter games for this player
-        List<Game> playerGames = games.stream()
-                .filter(game -> game.getPlayers().stream()
-                        .anyMatch(p -> p.getGlobalPlayer().getId().equals(globalPlayerId)))
-                .toList();
-
-        if (playerGames.isEmpty()) {
-            log.info("No games found for globalPlayerId: {}", globalPlayerId);
-            return new PlayerStatsDTO(0, null, null, new HashMap<>(), null, null, null);
-        }
-
-        // Aggregate points
-        List<Player> playerInstances = playerGames.stream()
-                .flatMap(game -> game.getPlayers().stream()
-                        .filter(p -> p.getGlobalPlayer().getId().equals(globalPlayerId)))
-                .toList();
-        int totalPoints = playerInstances.stream()
-                .mapToInt(p -> p.getPoints() != null ? p.getPoints() : 0)
-                .sum();
-        Double averagePoints = playerInstances.isEmpty() ? null : (double) totalPoints / playerInstances.size();
-
-        // Aggregate rolls
-        List<Roll> rolls = playerGames.stream()
-                .flatMap(game -> {
-                    Player player = game.getPlayers().stream()
-                            .filter(p -> p.getGlobalPlayer().getId().equals(globalPlayerId))
-                            .findFirst()
-                            .orElse(null);
-                    int playerIndex = player != null ? player.getOrder() - 1 : -1;
-                    return game.getRolls().stream()
-                            .filter(r -> r.getPlayerIndex() == playerIndex);
-                })
-                .toList();
-        Map<Integer, Integer> rollDistribution = rolls.stream()
-                .collect(Collectors.groupingBy(Roll::getNumber, Collectors.summingInt(r -> 1)));
-        Integer luckyNumber = rollDistribution.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
-
-        // Aggregate turn times
-        List<Turn> turns = playerGames.stream()
-                .flatMap(game -> {
-                    Player player = game.getPlayers().stream()
-                            .filter(p -> p.getGlobalPlayer().getId().equals(globalPlayerId))
-                            .findFirst()
-                            .orElse(null);
-                    return game.getTurns().stream()
-                            .filter(t -> t.getPlayer().equals(player));
-                })
-                .toList();
-        List<Double> turnDurations = turns.stream()
-                .map(t -> (double) Duration.between(t.getStartTimestamp(), t.getEndTimestamp()).getSeconds())
-                .toList();
-        Double longestTurn = turnDurations.stream().max(Double::compareTo).orElse(null);
-        Double shortestTurn = turnDurations.stream().min(Double::compareTo).orElse(null);
-        Double averageTurn = turnDurations.isEmpty() ? null : turnDurations.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-
-        PlayerStatsDTO stats = new PlayerStatsDTO(totalPoints, averagePoints, luckyNumber, rollDistribution,
-                longestTurn, shortestTurn, averageTurn);
-        log.info("Stats calculated for globalPlayerId: {} - {}", globalPlayerId, stats);
+        ServiceOperationEvent event = ServiceOperationEvent.start("getPlayerStats");
+        PlayerStatsDTO stats = playerStatsService.getStats(globalPlayerId);
+        log.debug("Stats calculated for globalPlayerId: {} - {}", globalPlayerId, stats);
+        event.commitOnCompletion();
         return stats;
     }
-}
\ No newline at end of file
+
+    /**
+     * Rebuilds the player stats on the task executor (virtual threads in virtual-thread mode), the caller is completed
+     * once the rebuild has committed.
+     */
+    @Async
+    public CompletableFuture<Integer> rebuildPlayerStats() {
+        return CompletableFuture.completedFuture(playerStatsService.rebuildAll());
+    }
+}
@@ -0,0 +1,162 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.config.LeagueScoped;
+import com.fdifrison.catan.dicecounter.dto.GameSessionStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Keeps what recording a turn needs to know about a live game (its players, their order and the current turn number)
+ * in memory, so the hot path attaches references instead of loading the game and the player.
+ * <p>
+ * Sessions are added once the transaction that created the game commits and dropped when the game ends or is deleted.
+ * The least recently used session is evicted once the cache is full; a missed game is loaded again on its next turn.
+ */
+@Component
+@LeagueScoped
+public class GameSessionCache {
+
+    public record SessionPlayer(int playerId, int globalPlayerId, int order) {
+    }
+
+    public static final class GameSession {
+
+        private final int gameId;
+        private final Map<Integer, SessionPlayer> players;
+        private final AtomicInteger currentTurnNumber;
+        private final boolean ended;
+
+        public GameSession(int gameId, Map<Integer, SessionPlayer> players, int currentTurnNumber, boolean ended) {
+            this.gameId = gameId;
+            this.players = Map.copyOf(players);
+            this.currentTurnNumber = new AtomicInteger(currentTurnNumber);
+            this.ended = ended;
+        }
+
+        public int getGameId() {
+            return gameId;
+        }
+
+        public Optional<SessionPlayer> getPlayer(Integer playerId) {
+            return Optional.ofNullable(playerId != null ? players.get(playerId) : null);
+        }
+
+        public Map<Integer, SessionPlayer> getPlayers() {
+            return players;
+        }
+
+        public int getCurrentTurnNumber() {
+            return currentTurnNumber.get();
+        }
+
+        public boolean isEnded() {
+            return ended;
+        }
+
+        void advanceTo(int turnNumber) {
+            currentTurnNumber.accumulateAndGet(turnNumber, Math::max);
+        }
+    }
+
+    private final int maxSize;
+    private final Map<Integer, GameSession> sessions;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public GameSessionCache(@Value("${app.sessions.max-size:256}") int maxSize) {
+        this.maxSize = maxSize;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, GameSession> eldest) {
+                if (size() > GameSessionCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the session of the game, loading it on a miss. The loader returns an empty result for a game that does
+     * not exist; the session of an ended game is returned to the caller but not cached.
+     */
+    public Optional<GameSession> get(Integer gameId, Function<Integer, Optional<GameSession>> loader) {
+        synchronized (sessions) {
+            GameSession session = sessions.get(gameId);
+            if (session != null) {
+                hits.incrementAndGet();
+                return Optional.of(session);
+            }
+        }
+        misses.incrementAndGet();
+        return loader.apply(gameId).map(session -> {
+            if (!session.isEnded()) {
+                put(session);
+            }
+            return session;
+        });
+    }
+
+    /**
+     * Adds the session once the current transaction commits, or right away outside of a transaction.
+     */
+    public void put(GameSession session) {
+        afterCommit(() -> {
+            synchronized (sessions) {
+                sessions.putIfAbsent(session.getGameId(), session);
+            }
+        });
+    }
+
+    /**
+     * Moves the current turn number of the session forward once the current transaction commits.
+     */
+    public void recordTurn(GameSession session, int turnNumber) {
+        afterCommit(() -> session.advanceTo(turnNumber));
+    }
+
+    /**
+     * Drops the session right away, so no turn is recorded against it meanwhile, and again after commit in case a
+     * concurrent miss loaded it before the change was visible.
+     */
+    public void invalidate(Integer gameId) {
+        remove(gameId);
+        afterCommit(() -> remove(gameId));
+    }
+
+    public GameSessionStatsDTO getStats() {
+        synchronized (sessions) {
+            return new GameSessionStatsDTO(hits.get(), misses.get(), evictions.get(), sessions.size(), maxSize);
+        }
+    }
+
+    private void remove(Integer gameId) {
+        synchronized (sessions) {
+            sessions.remove(gameId);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,360 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdifrison.catan.dicecounter.domain.DiceHistogram;
+import com.fdifrison.catan.dicecounter.dto.GameImportResultDTO;
+import com.fdifrison.catan.dicecounter.dto.GameTransferRecordDTO;
+import com.fdifrison.catan.dicecounter.repository.GameExportRepository;
+import com.fdifrison.catan.dicecounter.repository.VersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Exports the game history as a stream of records and imports such a stream into this database. Both directions hold
+ * one game at most: the export streams from database cursors to the output, the import reads a record at a time and
+ * sends the rows as JDBC batches.
+ */
+@Service
+public class GameTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameTransferService.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    // Games per import transaction, so an import does not hold the single writer for its whole duration
+    private static final int GAMES_PER_TRANSACTION = 1000;
+
+    private final GameExportRepository gameExportRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final IdAllocator idAllocator;
+    private final PlayerStatsService playerStatsService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final GameArchiver gameArchiver;
+    private final VersionRepository versionRepository;
+    private final GlobalPlayerCache globalPlayerCache;
+
+    public GameTransferService(GameExportRepository gameExportRepository, JdbcTemplate jdbcTemplate,
+                               IdAllocator idAllocator, PlayerStatsService playerStatsService,
+                               ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                               GameArchiver gameArchiver, VersionRepository versionRepository,
+                               GlobalPlayerCache globalPlayerCache) {
+        this.gameExportRepository = gameExportRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+        this.playerStatsService = playerStatsService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gameArchiver = gameArchiver;
+        this.versionRepository = versionRepository;
+        this.globalPlayerCache = globalPlayerCache;
+    }
+
+    /**
+     * Writes every global player and game, with its players, turns and rolls, from a single read snapshot.
+     */
+    @Transactional(readOnly = true)
+    public void exportGames(TransferFormat format, OutputStream outputStream) throws IOException {
+        TransferFormat.RecordWriter writer = format.writer(outputStream, objectMapper);
+        try {
+            gameExportRepository.forEachRecord(record -> {
+                try {
+                    writer.write(record);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Adds the exported games to this database under new ids. Global players are matched by email and created when
+     * missing. Games are committed in chunks of {@value #GAMES_PER_TRANSACTION}: a malformed record fails the import
+     * with the games of earlier chunks kept. The player stats of the players of the committed games are rebuilt at the
+     * end, whether the import succeeded or not, and the ended games committed are archived in the background.
+     *
+     * @throws IllegalArgumentException when a record is malformed or out of place
+     */
+    public GameImportResultDTO importGames(TransferFormat format, InputStream inputStream) throws IOException {
+        Importer importer = new Importer(format.reader(inputStream, objectMapper));
+        try {
+            boolean more = true;
+            while (more) {
+                more = transactionTemplate.execute(status -> importer.importChunk());
+                importer.committedGlobalPlayerIds.addAll(importer.chunkGlobalPlayerIds);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (IllegalArgumentException e) {
+            log.warn("Import failed after {} committed games: {}", importer.committedGames, e.getMessage());
+            throw new IllegalArgumentException(e.getMessage() + " (" + importer.committedGames
+                    + " games imported before the error)");
+        } finally {
+            transactionTemplate.executeWithoutResult(status ->
+                    importer.committedGlobalPlayerIds.forEach(playerStatsService::rebuild));
+            gameArchiver.schedulePending();
+        }
+        log.info("Imported {} games", importer.games);
+        return new GameImportResultDTO(importer.globalPlayersCreated, importer.games, importer.players,
+                importer.turns, importer.rolls);
+    }
+
+    /**
+     * State of one import. Ids are remapped as records arrive: global players for the whole import, players and turns
+     * for the current game only.
+     */
+    private final class Importer {
+
+        private final TransferFormat.RecordReader reader;
+        private final Map<Integer, Integer> globalPlayerIds = new HashMap<>();  // Exported id -> id here
+        private final Set<Integer> chunkGlobalPlayerIds = new HashSet<>();  // Ids here, of the current chunk's players
+        private final Set<Integer> committedGlobalPlayerIds = new HashSet<>();  // Ids here, of committed players
+        private final Map<Integer, Integer> playerIds = new HashMap<>();
+        private final Map<Integer, Integer> turnIds = new HashMap<>();
+        private final Map<Integer, Integer> playerIdsByIndex = new HashMap<>();  // 0-based index -> id here
+        private final Map<Integer, DiceHistogram> histograms = new HashMap<>();  // 0-based index -> rolls
+
+        private final List<Object[]> gameRows = new ArrayList<>();
+        private final List<Object[]> playerRows = new ArrayList<>();
+        private final List<Object[]> turnRows = new ArrayList<>();
+        private final List<Object[]> rollRows = new ArrayList<>();
+        private final List<Object[]> histogramRows = new ArrayList<>();
+
+        private GameTransferRecordDTO pending;  // First record of the next chunk
+        private Integer gameId;  // Id here of the current game
+        private boolean gameEnded;
+        private int committedGames;
+        private int globalPlayersCreated;
+        private int games;
+        private int players;
+        private int turns;
+        private int rolls;
+
+        private Importer(TransferFormat.RecordReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Imports the records of up to {@value #GAMES_PER_TRANSACTION} games in the current transaction.
+         *
+         * @return whether records are left
+         */
+        boolean importChunk() {
+            int chunkGames = 0;
+            chunkGlobalPlayerIds.clear();
+            try {
+                for (GameTransferRecordDTO record = next(); record != null; record = next()) {
+                    if (GameTransferRecordDTO.GAME.equals(record.record()) && chunkGames == GAMES_PER_TRANSACTION) {
+                        pending = record;
+                        break;
+                    }
+                    if (accept(record)) {
+                        chunkGames++;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            endGame();
+            flush();
+            versionRepository.bumpData();
+            committedGames = games;
+            return pending != null;
+        }
+
+        private GameTransferRecordDTO next() throws IOException {
+            GameTransferRecordDTO record = pending;
+            pending = null;
+            return record != null ? record : reader.read();
+        }
+
+        /**
+         * @return whether the record starts a game
+         */
+        private boolean accept(GameTransferRecordDTO record) {
+            if (record.record() == null) {
+                throw invalid("missing record type");
+            }
+            switch (record.record()) {
+                case GameTransferRecordDTO.GLOBAL_PLAYER -> acceptGlobalPlayer(record);
+                case GameTransferRecordDTO.GAME -> {
+                    acceptGame(record);
+                    return true;
+                }
+                case GameTransferRecordDTO.PLAYER -> acceptPlayer(record);
+                case GameTransferRecordDTO.TURN -> acceptTurn(record);
+                case GameTransferRecordDTO.ROLL -> acceptRoll(record);
+                default -> throw invalid("unknown record type: " + record.record());
+            }
+            return false;
+        }
+
+        private void acceptGlobalPlayer(GameTransferRecordDTO record) {
+            require(record.id(), "id");
+            require(record.name(), "name");
+            require(record.email(), "email");
+            List<Integer> existing = jdbcTemplate.queryForList("SELECT id FROM global_player WHERE email = ?",
+                    Integer.class, record.email());
+            Integer id;
+            if (existing.isEmpty()) {
+                id = idAllocator.next(IdAllocator.Sequence.GLOBAL_PLAYER);
+                jdbcTemplate.update("INSERT INTO global_player (id, name, email) VALUES (?, ?, ?)",
+                        id, record.name(), record.email());
+                globalPlayersCreated++;
+                globalPlayerCache.invalidate();
+            } else {
+                id = existing.getFirst();
+            }
+            globalPlayerIds.put(record.id(), id);
+        }
+
+        private void acceptGame(GameTransferRecordDTO record) {
+            require(record.name(), "name");
+            require(record.startTimestamp(), "startTimestamp");
+            endGame();
+            gameId = idAllocator.next(IdAllocator.Sequence.GAME);
+            gameEnded = record.endTimestamp() != null;
+            gameRows.add(new Object[]{gameId, record.name(), record.startTimestamp(), record.endTimestamp()});
+            games++;
+            flushIfFull(gameRows);
+        }
+
+        private void acceptPlayer(GameTransferRecordDTO record) {
+            requireGame();
+            require(record.id(), "id");
+            require(record.order(), "order");
+            require(record.color(), "color");
+            Integer globalPlayerId = globalPlayerIds.get(require(record.globalPlayerId(), "globalPlayerId"));
+            if (globalPlayerId == null) {
+                throw invalid("unknown global player: " + record.globalPlayerId());
+            }
+            int id = idAllocator.next(IdAllocator.Sequence.PLAYER);
+            playerIds.put(record.id(), id);
+            playerIdsByIndex.put(record.order() - 1, id);
+            chunkGlobalPlayerIds.add(globalPlayerId);
+            playerRows.add(new Object[]{id, gameId, globalPlayerId, record.order(), record.color(), record.rank(),
+                    record.points()});
+            players++;
+            flushIfFull(playerRows);
+        }
+
+        private void acceptTurn(GameTransferRecordDTO record) {
+            requireGame();
+            require(record.id(), "id");
+            Integer playerId = playerIds.get(require(record.playerId(), "playerId"));
+            if (playerId == null) {
+                throw invalid("unknown player: " + record.playerId());
+            }
+            int id = idAllocator.next(IdAllocator.Sequence.TURN);
+            turnIds.put(record.id(), id);
+            turnRows.add(new Object[]{id, gameId, playerId, require(record.turnNumber(), "turnNumber"),
+                    require(record.startTimestamp(), "startTimestamp"), require(record.endTimestamp(), "endTimestamp")});
+            turns++;
+            flushIfFull(turnRows);
+        }
+
+        private void acceptRoll(GameTransferRecordDTO record) {
+            requireGame();
+            int number = require(record.number(), "number");
+            int playerIndex = require(record.playerIndex(), "playerIndex");
+            if (number < DiceHistogram.MIN_NUMBER || number > DiceHistogram.MAX_NUMBER) {
+                throw invalid("invalid roll number: " + number);
+            }
+            Integer turnId = null;
+            if (record.turnId() != null) {
+                turnId = turnIds.get(record.turnId());
+                if (turnId == null) {
+                    throw invalid("unknown turn: " + record.turnId());
+                }
+            }
+            histograms.computeIfAbsent(playerIndex, index -> new DiceHistogram()).add(number);
+            rollRows.add(new Object[]{idAllocator.next(IdAllocator.Sequence.ROLL), gameId, turnId, number,
+                    playerIndex});
+            rolls++;
+            flushIfFull(rollRows);
+        }
+
+        /**
+         * Stores the roll histograms of the players of an ended game, as {@code endGame} does.
+         */
+        private void endGame() {
+            if (gameId != null && gameEnded) {
+                playerIdsByIndex.forEach((index, playerId) -> histogramRows.add(new Object[]{
+                        histograms.getOrDefault(index, new DiceHistogram()).toBytes(),
+                        playerId}));
+                flushIfFull(histogramRows);
+            }
+            gameId = null;
+            playerIds.clear();
+            turnIds.clear();
+            playerIdsByIndex.clear();
+            histograms.clear();
+        }
+
+        private void flushIfFull(List<Object[]> rows) {
+            if (rows.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Sends every pending batch, parents first.
+         */
+        private void flush() {
+            batch("INSERT INTO game (id, name, start_timestamp, end_timestamp) VALUES (?, ?, ?, ?)", gameRows);
+            batch("""
+                    INSERT INTO player (id, game_id, global_player_id, order_number, color, rank, points)
+                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                    """, playerRows);
+            batch("""
+                    INSERT INTO turn (id, game_id, player_id, turn_number, start_timestamp, end_timestamp)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """, turnRows);
+            batch("INSERT INTO roll (id, game_id, turn_id, number, player_index) VALUES (?, ?, ?, ?, ?)", rollRows);
+            batch("UPDATE player SET roll_histogram = ? WHERE id = ?", histogramRows);
+        }
+
+        private void batch(String sql, List<Object[]> rows) {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+
+        private void requireGame() {
+            if (gameId == null) {
+                throw invalid("record before the first game");
+            }
+        }
+
+        private <T> T require(T value, String field) {
+            if (value == null) {
+                throw invalid("missing " + field);
+            }
+            return value;
+        }
+
+        private IllegalArgumentException invalid(String message) {
+            return new IllegalArgumentException("Line " + reader.getLine() + ": " + message);
+        }
+    }
+}
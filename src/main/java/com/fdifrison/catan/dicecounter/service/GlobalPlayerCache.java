@@ -0,0 +1,126 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.config.LeagueScoped;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.mapper.GlobalPlayerMapper;
+import com.fdifrison.catan.dicecounter.repository.GlobalPlayerRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Keeps every global player in memory, so creating a game and mapping its players make no round trip to the
+ * {@code global_player} table. The table is small and its rows never change once inserted: an entry never goes stale,
+ * the cache only has to learn about new players.
+ * <p>
+ * All players are loaded on the first listing and a player missing from the cache is loaded on its own. Creating a
+ * player or importing some marks the cache incomplete once the transaction commits, so the next listing loads the
+ * table again.
+ */
+@Component
+@LeagueScoped
+public class GlobalPlayerCache {
+
+    private final GlobalPlayerRepository globalPlayerRepository;
+    private final GlobalPlayerMapper globalPlayerMapper;
+    private volatile Map<Integer, GlobalPlayerDTO> players = Map.of();  // Replaced, never modified
+    private boolean complete;
+    private long generation;
+
+    public GlobalPlayerCache(GlobalPlayerRepository globalPlayerRepository, GlobalPlayerMapper globalPlayerMapper) {
+        this.globalPlayerRepository = globalPlayerRepository;
+        this.globalPlayerMapper = globalPlayerMapper;
+    }
+
+    /**
+     * Every global player by id, loading the table when the cache is incomplete.
+     */
+    public List<GlobalPlayerDTO> getAll() {
+        long loadedGeneration;
+        synchronized (this) {
+            if (complete) {
+                return List.copyOf(players.values());
+            }
+            loadedGeneration = generation;
+        }
+        List<GlobalPlayerDTO> loaded = globalPlayerRepository.findAll().stream()
+                .map(globalPlayerMapper::toDto)
+                .toList();
+        synchronized (this) {
+            add(loaded);
+            complete = generation == loadedGeneration;  // Unless a player was created during the load
+            return List.copyOf(players.values());
+        }
+    }
+
+    public Optional<GlobalPlayerDTO> get(Integer id) {
+        return Optional.ofNullable(getAll(List.of(id)).get(id));
+    }
+
+    /**
+     * The global players with the ids, loading the ones missing from the cache in one query. Ids that do not exist are
+     * left out of the result.
+     */
+    public Map<Integer, GlobalPlayerDTO> getAll(Collection<Integer> ids) {
+        Map<Integer, GlobalPlayerDTO> snapshot = players;
+        Map<Integer, GlobalPlayerDTO> found = new LinkedHashMap<>();
+        List<Integer> missing = ids.stream()
+                .filter(id -> {
+                    GlobalPlayerDTO player = snapshot.get(id);
+                    if (player != null) {
+                        found.put(id, player);
+                    }
+                    return player == null;
+                })
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            List<GlobalPlayerDTO> loaded = globalPlayerRepository.findAllById(missing).stream()
+                    .map(globalPlayerMapper::toDto)
+                    .toList();
+            loaded.forEach(player -> found.put(player.id(), player));
+            synchronized (this) {
+                add(loaded);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Marks the cache incomplete once the current transaction commits, or right away outside of a transaction, after
+     * global players were inserted.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markIncomplete();
+                }
+            });
+        } else {
+            markIncomplete();
+        }
+    }
+
+    private synchronized void markIncomplete() {
+        complete = false;
+        generation++;
+    }
+
+    private void add(List<GlobalPlayerDTO> loaded) {
+        if (loaded.isEmpty()) {
+            return;
+        }
+        Map<Integer, GlobalPlayerDTO> updated = new TreeMap<>(players);
+        loaded.forEach(player -> updated.put(player.id(), player));
+        players = updated;
+    }
+}
@@ -0,0 +1,153 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.config.GroupCommitProperties;
+import com.fdifrison.catan.dicecounter.config.LeagueContext;
+import com.fdifrison.catan.dicecounter.config.LeagueScoped;
+import com.fdifrison.catan.dicecounter.dto.TurnCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in group commit for turns ({@code app.group-commit.enabled}). Submitted turns are queued and a single writer
+ * thread records them in batches, one transaction, and therefore one fsync, per batch: with group commit on, the
+ * writer connection runs with {@code synchronous=FULL}, see {@code DbConfig}. A batch is committed when it holds
+ * {@code max-batch-size} turns or when {@code max-delay} has passed since its first turn, and each caller is completed
+ * only once its batch is committed, and so durable. Each league has a queue and a writer thread of its own.
+ */
+@Component
+@LeagueScoped
+public class GroupCommitTurnWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitTurnWriter.class);
+
+    private final GroupCommitProperties properties;
+    private final GameService gameService;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingTurn> queue;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public GroupCommitTurnWriter(GroupCommitProperties properties, GameService gameService,
+                                 PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.gameService = gameService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(Math.max(properties.queueCapacity(), 1));
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Queues a turn, the returned future completes after the batch holding it has been committed.
+     *
+     * @throws TurnQueueFullException when the queue is full
+     */
+    public CompletableFuture<TurnDTO> submit(Integer gameId, TurnCreateDTO turnCreateDTO) {
+        PendingTurn pendingTurn = new PendingTurn(gameId, turnCreateDTO, new CompletableFuture<>());
+        if (!running || !queue.offer(pendingTurn)) {
+            throw new TurnQueueFullException(properties.queueCapacity());
+        }
+        return pendingTurn.result();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        String league = LeagueContext.current();
+        writerThread = Thread.ofPlatform().name("turn-group-commit")
+                .start(() -> LeagueContext.run(league, this::drain));
+        log.info("Group commit enabled: queueCapacity={}, maxBatchSize={}, maxDelay={}",
+                properties.queueCapacity(), properties.maxBatchSize(), properties.maxDelay());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        writerThread.join();
+    }
+
+    private void drain() {
+        List<PendingTurn> batch = new ArrayList<>(properties.maxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTurn first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + properties.maxDelay().toNanos();
+                while (batch.size() < properties.maxBatchSize()) {
+                    queue.drainTo(batch, properties.maxBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.maxBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    PendingTurn next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingTurn> batch) {
+        TurnDTO[] turns = new TurnDTO[batch.size()];
+        RuntimeException[] errors = new RuntimeException[batch.size()];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingTurn pendingTurn = batch.get(i);
+                    try {
+                        turns[i] = gameService.appendTurn(pendingTurn.gameId(), pendingTurn.turnCreateDTO());
+                    } catch (IllegalArgumentException e) {
+                        errors[i] = e;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Group commit of {} turns failed", batch.size(), e);
+            batch.forEach(pendingTurn -> pendingTurn.result().completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors[i] != null) {
+                batch.get(i).result().completeExceptionally(errors[i]);
+            } else {
+                batch.get(i).result().complete(turns[i]);
+            }
+        }
+    }
+
+    private record PendingTurn(Integer gameId, TurnCreateDTO turnCreateDTO, CompletableFuture<TurnDTO> result) {
+    }
+}
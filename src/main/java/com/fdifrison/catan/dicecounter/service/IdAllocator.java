@@ -0,0 +1,145 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.config.LeagueScoped;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hands out increasing entity ids from blocks reserved in the {@code id_block} table (hi/lo), so inserts append to the
+ * end of each table and most allocations need no database round trip.
+ * <p>
+ * A block is reserved inside the caller's write transaction, since the single writer connection cannot be shared with
+ * a separate one. Until that transaction commits the block is used by it alone; afterwards its remaining ids are shared
+ * with every transaction. Ids already taken by rows created before sequential ids (random values) are skipped.
+ */
+@Component
+@LeagueScoped
+public class IdAllocator {
+
+    public enum Sequence {
+        GLOBAL_PLAYER("global_player"),
+        GAME("game"),
+        PLAYER("player"),
+        TURN("turn"),
+        ROLL("roll");
+
+        private final String table;
+
+        Sequence(String table) {
+            this.table = table;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int blockSize;
+    private final Map<Sequence, Block> sharedBlocks = new EnumMap<>(Sequence.class);
+
+    public IdAllocator(JdbcTemplate jdbcTemplate, @Value("${app.ids.block-size:100}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSize = blockSize;
+    }
+
+    public int next(Sequence sequence) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("Ids can only be allocated in a write transaction");
+        }
+        Map<Sequence, Block> ownBlocks = ownBlocks();
+        Block own = ownBlocks.get(sequence);
+        if (own != null && own.hasNext()) {
+            return own.next();
+        }
+        synchronized (sharedBlocks) {
+            Block shared = sharedBlocks.get(sequence);
+            if (shared != null && shared.hasNext()) {
+                return shared.next();
+            }
+        }
+        Block reserved = reserve(sequence);
+        while (!reserved.hasNext()) {
+            reserved = reserve(sequence);
+        }
+        ownBlocks.put(sequence, reserved);
+        return reserved.next();
+    }
+
+    private Block reserve(Sequence sequence) {
+        long low = jdbcTemplate.queryForObject(
+                "SELECT next_value FROM id_block WHERE name = ?", Long.class, sequence.table);
+        long high = low + blockSize;
+        if (high > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Id sequence exhausted: " + sequence.table);
+        }
+        jdbcTemplate.update("UPDATE id_block SET next_value = ? WHERE name = ?", high, sequence.table);
+        List<Integer> taken = jdbcTemplate.queryForList(
+                "SELECT id FROM " + sequence.table + " WHERE id >= ? AND id < ?", Integer.class, low, high);
+        return new Block((int) low, (int) high, new HashSet<>(taken));
+    }
+
+    /**
+     * Blocks reserved by the current transaction, published to all transactions once it commits.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Sequence, Block> ownBlocks() {
+        Map<Sequence, Block> ownBlocks = (Map<Sequence, Block>) TransactionSynchronizationManager.getResource(this);
+        if (ownBlocks != null) {
+            return ownBlocks;
+        }
+        Map<Sequence, Block> blocks = new EnumMap<>(Sequence.class);
+        TransactionSynchronizationManager.bindResource(this, blocks);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                synchronized (sharedBlocks) {
+                    blocks.forEach((sequence, block) -> {
+                        Block shared = sharedBlocks.get(sequence);
+                        if (block.hasNext() && (shared == null || !shared.hasNext())) {
+                            sharedBlocks.put(sequence, block);
+                        }
+                    });
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(IdAllocator.this);
+            }
+        });
+        return blocks;
+    }
+
+    private static final class Block {
+        private final int limit;
+        private final Set<Integer> taken;
+        private int next;
+
+        private Block(int next, int limit, Set<Integer> taken) {
+            this.next = next;
+            this.limit = limit;
+            this.taken = taken;
+        }
+
+        boolean hasNext() {
+            while (next < limit && taken.contains(next)) {
+                next++;
+            }
+            return next < limit;
+        }
+
+        int next() {
+            if (!hasNext()) {
+                throw new IllegalStateException("Id block exhausted");
+            }
+            return next++;
+        }
+    }
+}
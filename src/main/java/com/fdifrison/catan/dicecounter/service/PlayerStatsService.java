@@ -0,0 +1,276 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.domain.DiceHistogram;
+import com.fdifrison.catan.dicecounter.domain.Player;
+import com.fdifrison.catan.dicecounter.domain.PlayerStats;
+import com.fdifrison.catan.dicecounter.domain.Turn;
+import com.fdifrison.catan.dicecounter.dto.PlayerStatsDTO;
+import com.fdifrison.catan.dicecounter.repository.GameArchive;
+import com.fdifrison.catan.dicecounter.repository.PlayerStatsRepository;
+import com.fdifrison.catan.dicecounter.repository.RollStreamRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Maintains the {@code player_stats} aggregate. Every write path that changes a player's statistics
+ * ({@code createGame}, {@code recordTurn}, {@code endGame}) updates the aggregate in its own transaction, so reading
+ * the stats of a player or the leaderboard never touches the game history. Updates are upserts, the write paths never
+ * read the aggregate.
+ */
+@Service
+public class PlayerStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayerStatsService.class);
+
+    private final PlayerStatsRepository playerStatsRepository;
+    private final RollStreamRepository rollStreamRepository;
+    private final GameArchive gameArchive;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PlayerStatsService(PlayerStatsRepository playerStatsRepository, RollStreamRepository rollStreamRepository,
+                              GameArchive gameArchive, JdbcTemplate jdbcTemplate) {
+        this.playerStatsRepository = playerStatsRepository;
+        this.rollStreamRepository = rollStreamRepository;
+        this.gameArchive = gameArchive;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public PlayerStatsDTO getStats(Integer globalPlayerId) {
+        PlayerStats stats = playerStatsRepository.findById(globalPlayerId).orElse(null);
+        if (stats == null || stats.getGamesPlayed() == 0) {
+            log.debug("No games found for globalPlayerId: {}", globalPlayerId);
+            return new PlayerStatsDTO(0, null, null, new HashMap<>(), null, null, null);
+        }
+
+        DiceHistogram rolls = DiceHistogram.of(stats.getRollDistribution());
+
+        int turnCount = stats.getTurnCount();
+        return new PlayerStatsDTO(
+                stats.getTotalPoints(),
+                (double) stats.getTotalPoints() / stats.getGamesPlayed(),
+                rolls.luckyNumber(),
+                new HashMap<>(rolls.toMap()),
+                turnCount == 0 ? null : stats.getTurnSecondsMax().doubleValue(),
+                turnCount == 0 ? null : stats.getTurnSecondsMin().doubleValue(),
+                turnCount == 0 ? null : (double) stats.getTurnSecondsSum() / turnCount);
+    }
+
+    /**
+     * The {@code on*} write paths return the rows they wrote.
+     */
+    @Transactional
+    public int onGameCreated(List<Player> players) {
+        int rows = 0;
+        for (Player player : players) {
+            rows += jdbcTemplate.update("""
+                    INSERT INTO player_stats (global_player_id, games_played, total_points, turn_count, turn_seconds_sum)
+                    VALUES (?, 1, 0, 0, 0)
+                    ON CONFLICT (global_player_id) DO UPDATE SET games_played = games_played + 1
+                    """, player.getGlobalPlayer().getId());
+        }
+        return rows;
+    }
+
+    @Transactional
+    public int onTurnRecorded(Integer globalPlayerId, Turn turn, Integer rollNumber) {
+        Long seconds = turn.getStartTimestamp() != null && turn.getEndTimestamp() != null
+                ? Duration.between(turn.getStartTimestamp(), turn.getEndTimestamp()).getSeconds()
+                : null;
+        int rows = jdbcTemplate.update("""
+                INSERT INTO player_stats (global_player_id, games_played, total_points, turn_count, turn_seconds_sum,
+                                          turn_seconds_min, turn_seconds_max)
+                VALUES (?, 0, 0, ?, COALESCE(?, 0), ?, ?)
+                ON CONFLICT (global_player_id) DO UPDATE SET
+                    turn_count = turn_count + excluded.turn_count,
+                    turn_seconds_sum = turn_seconds_sum + excluded.turn_seconds_sum,
+                    turn_seconds_min = COALESCE(MIN(turn_seconds_min, excluded.turn_seconds_min), turn_seconds_min,
+                                                excluded.turn_seconds_min),
+                    turn_seconds_max = COALESCE(MAX(turn_seconds_max, excluded.turn_seconds_max), turn_seconds_max,
+                                                excluded.turn_seconds_max)
+                """, globalPlayerId, seconds != null ? 1 : 0, seconds, seconds, seconds);
+        if (rollNumber != null) {
+            rows += jdbcTemplate.update("""
+                    INSERT INTO player_stats_roll (global_player_id, number, count) VALUES (?, ?, 1)
+                    ON CONFLICT (global_player_id, number) DO UPDATE SET count = count + 1
+                    """, globalPlayerId, rollNumber);
+        }
+        return rows;
+    }
+
+    @Transactional
+    public int onPlayerScored(Player player, Integer previousPoints, Integer points) {
+        int delta = (points != null ? points : 0) - (previousPoints != null ? previousPoints : 0);
+        int scoredGames = (points != null ? 1 : 0) - (previousPoints != null ? 1 : 0);
+        if (delta == 0 && scoredGames == 0) {
+            return 0;
+        }
+        return jdbcTemplate.update("""
+                INSERT INTO player_stats (global_player_id, games_played, total_points, turn_count, turn_seconds_sum,
+                                          scored_games)
+                VALUES (?, 0, ?, 0, 0, ?)
+                ON CONFLICT (global_player_id) DO UPDATE SET
+                    total_points = total_points + excluded.total_points,
+                    scored_games = scored_games + excluded.scored_games
+                """, player.getGlobalPlayer().getId(), delta, scoredGames);
+    }
+
+    /**
+     * Moves the player's wins and ranks from the previous rank to the new one, so ending a game again replaces its
+     * result instead of counting it twice.
+     */
+    @Transactional
+    public int onPlayerRanked(Player player, Integer previousRank, Integer rank) {
+        if (Objects.equals(previousRank, rank)) {
+            return 0;
+        }
+        int wins = (isWin(rank) ? 1 : 0) - (isWin(previousRank) ? 1 : 0);
+        int rankedGames = (rank != null ? 1 : 0) - (previousRank != null ? 1 : 0);
+        int rankSum = (rank != null ? rank : 0) - (previousRank != null ? previousRank : 0);
+        return jdbcTemplate.update("""
+                INSERT INTO player_stats (global_player_id, games_played, total_points, turn_count, turn_seconds_sum,
+                                          wins, ranked_games, rank_sum)
+                VALUES (?, 0, 0, 0, 0, ?, ?, ?)
+                ON CONFLICT (global_player_id) DO UPDATE SET
+                    wins = wins + excluded.wins,
+                    ranked_games = ranked_games + excluded.ranked_games,
+                    rank_sum = rank_sum + excluded.rank_sum
+                """, player.getGlobalPlayer().getId(), wins, rankedGames, rankSum);
+    }
+
+    private static boolean isWin(Integer rank) {
+        return rank != null && rank == 1;
+    }
+
+    /**
+     * Recomputes the aggregate of every global player, leaderboard included. Run it after rows were written behind the
+     * write paths' back, e.g. by an import. The turn times come from a single pass over the history: the archived
+     * games are read from the {@link GameArchive}, only the others from the turn rows.
+     */
+    @Transactional
+    public int rebuildAll() {
+        List<Integer> globalPlayerIds = jdbcTemplate.queryForList("SELECT id FROM global_player", Integer.class);
+        globalPlayerIds.forEach(this::rebuildGamesAndRolls);
+        Map<Integer, TurnTimes> turnTimes = turnTimesOfHistory();
+        jdbcTemplate.batchUpdate("""
+                UPDATE player_stats SET turn_count = ?, turn_seconds_sum = ?, turn_seconds_min = ?, turn_seconds_max = ?
+                WHERE global_player_id = ?
+                """, turnTimes.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue().count, entry.getValue().sum, entry.getValue().min,
+                        entry.getValue().max, entry.getKey()})
+                .toList());
+        log.info("Rebuilt player stats for {} global players", globalPlayerIds.size());
+        return globalPlayerIds.size();
+    }
+
+    /**
+     * Recomputes the aggregate of a single global player from the {@code player}, {@code roll} and {@code turn}
+     * tables, returning the rows it wrote. The rebuild runs plain SQL, so pending changes of the current persistence
+     * context must be flushed by the caller.
+     */
+    @Transactional
+    public int rebuild(Integer globalPlayerId) {
+        return rebuildGamesAndRolls(globalPlayerId) + jdbcTemplate.update("""
+                UPDATE player_stats SET (turn_count, turn_seconds_sum, turn_seconds_min, turn_seconds_max) = (
+                    SELECT COUNT(*), COALESCE(SUM(d.seconds), 0), MIN(d.seconds), MAX(d.seconds)
+                    FROM (SELECT (t.end_timestamp - t.start_timestamp) / 1000 AS seconds
+                          FROM turn t JOIN player p ON p.id = t.player_id
+                          WHERE p.global_player_id = ?) d)
+                WHERE global_player_id = ?
+                """, globalPlayerId, globalPlayerId);
+    }
+
+    /**
+     * Replaces the aggregate of the global player with its games, results and rolls, without turn times, returning the
+     * rows it wrote.
+     */
+    private int rebuildGamesAndRolls(Integer globalPlayerId) {
+        int rows = jdbcTemplate.update("DELETE FROM player_stats_roll WHERE global_player_id = ?", globalPlayerId);
+        rows += jdbcTemplate.update("DELETE FROM player_stats WHERE global_player_id = ?", globalPlayerId);
+        rows += jdbcTemplate.update("""
+                INSERT INTO player_stats (global_player_id, games_played, total_points, turn_count, turn_seconds_sum,
+                                          scored_games, wins, ranked_games, rank_sum)
+                SELECT ?, COUNT(*), COALESCE(SUM(points), 0), 0, 0, COUNT(points), COALESCE(SUM(rank = 1), 0),
+                       COUNT(rank), COALESCE(SUM(rank), 0)
+                FROM player WHERE global_player_id = ?
+                """, globalPlayerId, globalPlayerId);
+        return rows + insertRollDistribution(globalPlayerId, rollHistogram(globalPlayerId));
+    }
+
+    /**
+     * The turn times of every global player, in whole seconds per turn like the write paths count them. The archived
+     * games and the turn rows of the others are read in the caller's transaction, so each game is counted once, see
+     * {@link GameArchive#forEachGame}.
+     */
+    private Map<Integer, TurnTimes> turnTimesOfHistory() {
+        Map<Integer, TurnTimes> turnTimes = new HashMap<>();
+        long archiveLength = gameArchive.getCommittedLength();
+        rollStreamRepository.readArchivedGames(archiveLength, games ->
+                gameArchive.forEachGame(games, (segment, gameId) ->
+                        segment.forEachTurn((playerIndex, durationMillis) -> turnTimes
+                                .computeIfAbsent(segment.getGlobalPlayerId(playerIndex), id -> new TurnTimes())
+                                .add(1, durationMillis / 1000, durationMillis / 1000, durationMillis / 1000))));
+        jdbcTemplate.query("""
+                SELECT d.global_player_id, COUNT(*), SUM(d.seconds), MIN(d.seconds), MAX(d.seconds)
+                FROM (SELECT p.global_player_id, (t.end_timestamp - t.start_timestamp) / 1000 AS seconds
+                      FROM turn t JOIN player p ON p.id = t.player_id
+                      WHERE t.game_id IN (SELECT id FROM game WHERE archive_offset IS NULL
+                                          UNION ALL
+                                          SELECT id FROM game WHERE archive_offset >= ?)) d
+                GROUP BY d.global_player_id
+                """, rs -> {
+                    turnTimes.computeIfAbsent(rs.getInt(1), id -> new TurnTimes())
+                            .add(rs.getInt(2), rs.getLong(3), rs.getLong(4), rs.getLong(5));
+                }, archiveLength);
+        return turnTimes;
+    }
+
+    /**
+     * Merges the histograms stored on the player rows of ended games; only games without one are counted from the roll
+     * rows.
+     */
+    private DiceHistogram rollHistogram(Integer globalPlayerId) {
+        DiceHistogram histogram = new DiceHistogram();
+        jdbcTemplate.query("SELECT roll_histogram FROM player WHERE global_player_id = ? AND roll_histogram IS NOT NULL",
+                rs -> {
+                    histogram.merge(DiceHistogram.fromBytes(rs.getBytes(1)));
+                }, globalPlayerId);
+        jdbcTemplate.query("""
+                SELECT r.number, COUNT(*)
+                FROM roll r JOIN player p ON p.game_id = r.game_id AND p.order_number - 1 = r.player_index
+                WHERE p.global_player_id = ? AND p.roll_histogram IS NULL
+                GROUP BY r.number
+                """, rs -> {
+                    histogram.add(rs.getInt(1), rs.getInt(2));
+                }, globalPlayerId);
+        return histogram;
+    }
+
+    private static final class TurnTimes {
+        private int count;
+        private long sum;
+        private Long min;
+        private Long max;
+
+        void add(int turns, long seconds, long minSeconds, long maxSeconds) {
+            count += turns;
+            sum += seconds;
+            min = min == null ? minSeconds : Math.min(min, minSeconds);
+            max = max == null ? maxSeconds : Math.max(max, maxSeconds);
+        }
+    }
+
+    private int insertRollDistribution(Integer globalPlayerId, DiceHistogram histogram) {
+        List<Object[]> rows = histogram.toMap().entrySet().stream()
+                .map(entry -> new Object[]{globalPlayerId, entry.getKey(), entry.getValue()})
+                .toList();
+        return Arrays.stream(jdbcTemplate.batchUpdate(
+                "INSERT INTO player_stats_roll (global_player_id, number, count) VALUES (?, ?, ?)", rows)).sum();
+    }
+}
@@ -0,0 +1,68 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JDK Flight Recorder event for a {@link GameService} operation; its duration is the time between {@link #begin()} and
+ * the completion of the operation's transaction, commit included, see {@link #commitOnCompletion()}. Recording is off
+ * unless a flight recording is running, so an event costs next to nothing otherwise.
+ */
+@Name("com.fdifrison.catan.ServiceOperation")
+@Label("Service Operation")
+@Category("Dice Counter")
+@Description("A GameService operation with the game it touched and the rows it wrote")
+class ServiceOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Game Id")
+    int gameId;
+
+    @Label("Player Count")
+    int playerCount;
+
+    @Label("Rows Written")
+    int rowsWritten;
+
+    @Label("Committed")
+    boolean committed;
+
+    ServiceOperationEvent(String operation) {
+        this.operation = operation;
+    }
+
+    static ServiceOperationEvent start(String operation) {
+        ServiceOperationEvent event = new ServiceOperationEvent(operation);
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the event once the surrounding transaction has completed, so the duration includes the commit and
+     * {@link #committed} tells whether it was rolled back. Outside a transaction the event is committed right away.
+     */
+    void commitOnCompletion() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed = true;
+            commit();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                committed = status == STATUS_COMMITTED;
+                commit();
+            }
+        });
+    }
+}
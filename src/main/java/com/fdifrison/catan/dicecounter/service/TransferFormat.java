@@ -0,0 +1,333 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdifrison.catan.dicecounter.dto.GameTransferRecordDTO;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodings of a game export, one {@link GameTransferRecordDTO} per line. Records are written and read one at a time,
+ * so neither side holds more than a buffer of the stream.
+ */
+public enum TransferFormat {
+
+    /**
+     * One JSON object per line, without the null fields.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON, ".ndjson") {
+        @Override
+        RecordWriter writer(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);  // Lines are separated by the newline alone
+            return new RecordWriter() {
+                @Override
+                public void write(GameTransferRecordDTO record) throws IOException {
+                    generator.writeObject(record);
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    generator.flush();
+                }
+            };
+        }
+
+        @Override
+        RecordReader reader(InputStream inputStream, ObjectMapper objectMapper) throws IOException {
+            MappingIterator<GameTransferRecordDTO> records = objectMapper.readerFor(GameTransferRecordDTO.class)
+                    .readValues(inputStream);
+            return new RecordReader() {
+                @Override
+                public GameTransferRecordDTO read() {
+                    try {
+                        return records.hasNextValue() ? records.nextValue() : null;
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalArgumentException("Line " + getLine() + ": " + e.getOriginalMessage());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public long getLine() {
+                    return records.getCurrentLocation().getLineNr();
+                }
+            };
+        }
+    },
+
+    /**
+     * RFC 4180 rows without a header: the record type, then the columns of that type in a fixed order, see
+     * {@link CsvCodec}.
+     */
+    CSV(MediaType.parseMediaType("text/csv"), ".csv") {
+        @Override
+        RecordWriter writer(OutputStream outputStream, ObjectMapper objectMapper) {
+            return new CsvCodec.CsvWriter(outputStream);
+        }
+
+        @Override
+        RecordReader reader(InputStream inputStream, ObjectMapper objectMapper) {
+            return new CsvCodec.CsvReader(inputStream);
+        }
+    };
+
+    interface RecordWriter {
+        void write(GameTransferRecordDTO record) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    interface RecordReader {
+        /**
+         * The next record, or null at the end of the stream.
+         *
+         * @throws IllegalArgumentException when the record is malformed
+         */
+        GameTransferRecordDTO read() throws IOException;
+
+        long getLine();
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    TransferFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * The format of a file by its extension, NDJSON unless it ends with {@code .csv}.
+     */
+    public static TransferFormat ofFileName(String fileName) {
+        return fileName.toLowerCase().endsWith(CSV.fileExtension) ? CSV : NDJSON;
+    }
+
+    abstract RecordWriter writer(OutputStream outputStream, ObjectMapper objectMapper) throws IOException;
+
+    abstract RecordReader reader(InputStream inputStream, ObjectMapper objectMapper) throws IOException;
+
+    /**
+     * Columns after the record type:
+     * <ul>
+     *     <li>{@code global_player,id,name,email}</li>
+     *     <li>{@code game,id,name,start_timestamp,end_timestamp}</li>
+     *     <li>{@code player,id,global_player_id,order,color,rank,points}</li>
+     *     <li>{@code turn,id,player_id,turn_number,start_timestamp,end_timestamp}</li>
+     *     <li>{@code roll,id,turn_id,number,player_index}</li>
+     * </ul>
+     * An empty column is null.
+     */
+    private static final class CsvCodec {
+
+        private static final class CsvWriter implements RecordWriter {
+
+            private final Writer out;
+
+            private CsvWriter(OutputStream outputStream) {
+                this.out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                        BUFFER_SIZE);
+            }
+
+            @Override
+            public void write(GameTransferRecordDTO record) throws IOException {
+                out.write(record.record());
+                switch (record.record()) {
+                    case GameTransferRecordDTO.GLOBAL_PLAYER -> columns(record.id(), record.name(), record.email());
+                    case GameTransferRecordDTO.GAME -> columns(record.id(), record.name(), record.startTimestamp(),
+                            record.endTimestamp());
+                    case GameTransferRecordDTO.PLAYER -> columns(record.id(), record.globalPlayerId(), record.order(),
+                            record.color(), record.rank(), record.points());
+                    case GameTransferRecordDTO.TURN -> columns(record.id(), record.playerId(), record.turnNumber(),
+                            record.startTimestamp(), record.endTimestamp());
+                    case GameTransferRecordDTO.ROLL -> columns(record.id(), record.turnId(), record.number(),
+                            record.playerIndex());
+                    default -> throw new IllegalArgumentException("Unknown record type: " + record.record());
+                }
+                out.write('\n');
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+
+            private void columns(Object... values) throws IOException {
+                for (Object value : values) {
+                    out.write(',');
+                    if (value != null) {
+                        quote(out, value.toString());
+                    }
+                }
+            }
+
+            private static void quote(Writer out, String value) throws IOException {
+                if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                        && value.indexOf('\r') < 0) {
+                    out.write(value);
+                    return;
+                }
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            }
+        }
+
+        private static final class CsvReader implements RecordReader {
+
+            private final BufferedReader in;
+            private final List<String> fields = new ArrayList<>();
+            private final StringBuilder field = new StringBuilder();
+            private long line;
+
+            private CsvReader(InputStream inputStream) {
+                this.in = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            }
+
+            @Override
+            public GameTransferRecordDTO read() throws IOException {
+                do {
+                    if (!readRow()) {
+                        return null;
+                    }
+                } while (fields.size() == 1 && fields.getFirst().isEmpty());  // Blank line
+
+                return switch (fields.getFirst()) {
+                    case GameTransferRecordDTO.GLOBAL_PLAYER -> {
+                        expectColumns(3);
+                        yield GameTransferRecordDTO.globalPlayer(integer(1), string(2), string(3));
+                    }
+                    case GameTransferRecordDTO.GAME -> {
+                        expectColumns(4);
+                        yield GameTransferRecordDTO.game(integer(1), string(2), longValue(3), longValue(4));
+                    }
+                    case GameTransferRecordDTO.PLAYER -> {
+                        expectColumns(6);
+                        yield GameTransferRecordDTO.player(integer(1), integer(2), integer(3), string(4), integer(5),
+                                integer(6));
+                    }
+                    case GameTransferRecordDTO.TURN -> {
+                        expectColumns(5);
+                        yield GameTransferRecordDTO.turn(integer(1), integer(2), integer(3), longValue(4),
+                                longValue(5));
+                    }
+                    case GameTransferRecordDTO.ROLL -> {
+                        expectColumns(4);
+                        yield GameTransferRecordDTO.roll(integer(1), integer(2), integer(3), integer(4));
+                    }
+                    default -> throw new IllegalArgumentException(
+                            "Line " + line + ": unknown record type: " + fields.getFirst());
+                };
+            }
+
+            @Override
+            public long getLine() {
+                return line;
+            }
+
+            /**
+             * Reads the fields of the next row, which spans several lines when a quoted field holds a line break.
+             */
+            private boolean readRow() throws IOException {
+                fields.clear();
+                field.setLength(0);
+                int c = in.read();
+                if (c < 0) {
+                    return false;
+                }
+                line++;
+                boolean quoted = false;
+                for (; c >= 0; c = in.read()) {
+                    if (quoted) {
+                        if (c == '"') {
+                            in.mark(1);
+                            if (in.read() == '"') {
+                                field.append('"');
+                            } else {
+                                in.reset();
+                                quoted = false;
+                            }
+                        } else {
+                            if (c == '\n') {
+                                line++;
+                            }
+                            field.append((char) c);
+                        }
+                    } else if (c == '"' && field.isEmpty()) {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else if (c == '\n') {
+                        break;
+                    } else if (c != '\r') {
+                        field.append((char) c);
+                    }
+                }
+                if (quoted) {
+                    throw new IllegalArgumentException("Line " + line + ": unterminated quoted field");
+                }
+                fields.add(field.toString());
+                return true;
+            }
+
+            private void expectColumns(int columns) {
+                if (fields.size() != columns + 1) {
+                    throw new IllegalArgumentException("Line " + line + ": expected " + columns + " columns for "
+                            + fields.getFirst() + ", got " + (fields.size() - 1));
+                }
+            }
+
+            private String string(int column) {
+                String value = fields.get(column);
+                return value.isEmpty() ? null : value;
+            }
+
+            private Integer integer(int column) {
+                String value = string(column);
+                try {
+                    return value != null ? Integer.valueOf(value) : null;
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Line " + line + ": not a number: " + value);
+                }
+            }
+
+            private Long longValue(int column) {
+                String value = string(column);
+                try {
+                    return value != null ? Long.valueOf(value) : null;
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Line " + line + ": not a number: " + value);
+                }
+            }
+        }
+    }
+}
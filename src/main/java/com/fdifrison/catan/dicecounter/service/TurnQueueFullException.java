@@ -0,0 +1,8 @@
+package com.fdifrison.catan.dicecounter.service;
+
+public class TurnQueueFullException extends RuntimeException {
+
+    public TurnQueueFullException(int capacity) {
+        super("Turn queue is full (" + capacity + " pending turns), retry later");
+    }
+}
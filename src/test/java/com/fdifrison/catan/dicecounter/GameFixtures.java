@@ -0,0 +1,55 @@
+package com.fdifrison.catan.dicecounter;
+
+import com.fdifrison.catan.dicecounter.dto.EndGameDTO;
+import com.fdifrison.catan.dicecounter.dto.GameCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerEndDTO;
+import com.fdifrison.catan.dicecounter.service.GameService;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Global players and games for the tests, created through {@link GameService}. Names and emails get a random suffix,
+ * so the tests of a class can share their database. Add it to the test context with {@code @Import}.
+ */
+@TestComponent
+public class GameFixtures {
+
+    private final GameService gameService;
+
+    public GameFixtures(GameService gameService) {
+        this.gameService = gameService;
+    }
+
+    public GlobalPlayerDTO createGlobalPlayer(String name) {
+        String uniqueName = name + "-" + UUID.randomUUID();
+        return gameService.createGlobalPlayer(new GlobalPlayerDTO(null, uniqueName, uniqueName + "@example.com"));
+    }
+
+    /**
+     * Creates a game of the global players, in their order; each player's color is the global player's name.
+     */
+    public GameDTO createGame(String name, GlobalPlayerDTO... globalPlayers) {
+        List<PlayerCreateDTO> players = new ArrayList<>();
+        for (int i = 0; i < globalPlayers.length; i++) {
+            players.add(new PlayerCreateDTO(globalPlayers[i].id(), globalPlayers[i].name(), i + 1));
+        }
+        return gameService.createGame(new GameCreateDTO(name, players));
+    }
+
+    /**
+     * Ends the game with the points of its first players, in their order, ranked in that order too.
+     */
+    public GameDTO endGame(GameDTO game, int... points) {
+        List<PlayerEndDTO> players = new ArrayList<>();
+        for (int i = 0; i < points.length; i++) {
+            players.add(new PlayerEndDTO(game.players().get(i).id(), i + 1, points[i]));
+        }
+        return gameService.endGame(game.id(), new EndGameDTO(players));
+    }
+}
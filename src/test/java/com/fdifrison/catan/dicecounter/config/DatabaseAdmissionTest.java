@@ -0,0 +1,166 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseAdmissionTest {
+
+    private static DatabaseAdmission admission(int readPermits, Duration timeout) {
+        return new DatabaseAdmission(new AdmissionProperties(true, readPermits, timeout));
+    }
+
+    @Test
+    void readsAreBoundedAndTimeOut() {
+        DatabaseAdmission admission = admission(2, Duration.ofMillis(50));
+        admission.acquire(DatabaseAdmission.Lane.READ);
+        admission.acquire(DatabaseAdmission.Lane.READ);
+
+        assertThatThrownBy(() -> admission.acquire(DatabaseAdmission.Lane.READ))
+                .isInstanceOf(DatabaseBusyException.class)
+                .hasMessage("Database busy: no read permit within 50 ms");
+        assertThat(admission.getRejected()).isOne();
+        assertThat(admission.getInUse()).isEqualTo(2);
+
+        admission.release(DatabaseAdmission.Lane.READ);
+        admission.acquire(DatabaseAdmission.Lane.READ);
+        assertThat(admission.getInUse()).isEqualTo(2);
+    }
+
+    @Test
+    void writerKeepsItsPermitWhileReadsAreBusy() {
+        DatabaseAdmission admission = admission(2, Duration.ofMillis(50));
+        admission.acquire(DatabaseAdmission.Lane.READ);
+        admission.acquire(DatabaseAdmission.Lane.READ);
+        assertThatThrownBy(() -> admission.acquire(DatabaseAdmission.Lane.READ))
+                .isInstanceOf(DatabaseBusyException.class);
+
+        admission.acquire(DatabaseAdmission.Lane.WRITE);
+
+        assertThat(admission.getInUse()).isEqualTo(3);
+        assertThat(admission.getRejected()).isOne();
+    }
+
+    @Test
+    void waitingWriteHoldsBackNewReads() throws Exception {
+        DatabaseAdmission admission = admission(2, Duration.ofSeconds(10));
+        admission.acquire(DatabaseAdmission.Lane.READ);
+        admission.acquire(DatabaseAdmission.Lane.WRITE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<?> secondWrite = executor.submit(() -> {
+                started.countDown();
+                admission.acquire(DatabaseAdmission.Lane.WRITE);
+            });
+            started.await();
+            Thread.sleep(50);
+            assertThat(secondWrite).isNotDone();
+            assertThat(admission.getInUse()).isEqualTo(2);
+
+            // A read permit is free, but the waiting write goes first
+            Future<?> read = executor.submit(() -> admission.acquire(DatabaseAdmission.Lane.READ));
+            Thread.sleep(50);
+            assertThat(read).isNotDone();
+
+            admission.release(DatabaseAdmission.Lane.WRITE);
+            secondWrite.get(5, TimeUnit.SECONDS);
+            read.get(5, TimeUnit.SECONDS);
+            assertThat(admission.getInUse()).isEqualTo(3);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void timedOutWriteReleasesTheReads() {
+        DatabaseAdmission admission = admission(2, Duration.ofMillis(50));
+        admission.acquire(DatabaseAdmission.Lane.WRITE);
+
+        assertThatThrownBy(() -> admission.acquire(DatabaseAdmission.Lane.WRITE))
+                .isInstanceOf(DatabaseBusyException.class)
+                .hasMessage("Database busy: no write permit within 50 ms");
+        admission.acquire(DatabaseAdmission.Lane.READ);
+
+        assertThat(admission.getInUse()).isEqualTo(2);
+        assertThat(admission.getRejected()).isOne();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheLanes() throws Exception {
+        DatabaseAdmission admission = admission(3, Duration.ofSeconds(30));
+        AtomicInteger writes = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        AtomicInteger maxWrites = new AtomicInteger();
+        AtomicInteger maxReads = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int thread = 0; thread < 16; thread++) {
+                DatabaseAdmission.Lane lane = thread % 4 == 0 ? DatabaseAdmission.Lane.WRITE : DatabaseAdmission.Lane.READ;
+                AtomicInteger inUse = lane == DatabaseAdmission.Lane.WRITE ? writes : reads;
+                AtomicInteger max = lane == DatabaseAdmission.Lane.WRITE ? maxWrites : maxReads;
+                callers.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        admission.acquire(lane);
+                        max.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                        Thread.onSpinWait();
+                        inUse.decrementAndGet();
+                        admission.release(lane);
+                    }
+                }));
+            }
+            for (Future<?> caller : callers) {
+                caller.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxWrites.get()).isOne();
+        assertThat(maxReads.get()).isBetween(1, 3);
+        assertThat(admission.getInUse()).isZero();
+        assertThat(admission.getRejected()).isZero();
+    }
+
+    @Test
+    void guardedConnectionReleasesItsPermitOnce() throws Exception {
+        DatabaseAdmission admission = admission(2, Duration.ofMillis(50));
+        DataSource dataSource = admission.guard(dataSource(), DatabaseAdmission.Lane.READ);
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertThat(admission.getInUse()).isEqualTo(2);
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(DatabaseBusyException.class);
+
+        first.close();
+        first.close();
+        assertThat(admission.getInUse()).isOne();
+        second.close();
+        assertThat(admission.getInUse()).isZero();
+    }
+
+    private static DataSource dataSource() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> method.getName().equals("getConnection")
+                        ? Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                                (connection, connectionMethod, connectionArgs) -> null)
+                        : null);
+    }
+}
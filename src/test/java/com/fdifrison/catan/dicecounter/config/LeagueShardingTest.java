@@ -0,0 +1,244 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdifrison.catan.dicecounter.dto.GameSessionStatsDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Leagues next to the main database, each league in a database file of its own under a directory of this run. Every
+ * test uses leagues of its own, so the order of the tests does not matter.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/league-sharding-test-${random.uuid}.db",
+        "app.leagues.enabled=true",
+        "app.leagues.names=north,south,migrated,idle,scoped-north,scoped-south,async",
+        "app.leagues.directory=target/league-sharding-test-${random.uuid}",
+        "app.leagues.idle-timeout=2s"})
+@AutoConfigureMockMvc
+class LeagueShardingTest {
+
+    @TestConfiguration
+    static class Probes {
+
+        @Bean
+        LeagueProbe leagueProbe() {
+            return new LeagueProbe();
+        }
+    }
+
+    /**
+     * Reports the league an {@code @Async} task runs on and the leagues opened so far.
+     */
+    static class LeagueProbe {
+
+        private final List<String> opened = new CopyOnWriteArrayList<>();
+
+        // Not the field: callers get the @Async proxy
+        public List<String> opened() {
+            return opened;
+        }
+
+        @Async
+        public CompletableFuture<List<String>> currentLeague() {
+            return CompletableFuture.completedFuture(List.of(String.valueOf(LeagueContext.current()),
+                    Thread.currentThread().getName()));
+        }
+
+        @EventListener
+        public void onLeagueOpened(LeagueOpenedEvent event) {
+            opened.add(event.league());
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private LeagueRoutingDataSource dataSource;
+    @Autowired
+    private LeagueProbe leagueProbe;
+    @Autowired
+    private LeagueProperties leagueProperties;
+
+    @Test
+    void headerAndPathRouteToTheLeagueDatabases() throws Exception {
+        String north = "north";
+        String south = "south";
+        createPlayer(post("/api/games/players").header("X-League", north), "Ada");
+        createPlayer(post("/api/leagues/{league}/games/players", south), "Bo");
+        createPlayer(post("/api/leagues/{league}/games/players", south), "Cy");
+        createPlayer(post("/api/games/players"), "Main-" + UUID.randomUUID());
+
+        // Every database starts with the seeded players
+        assertThat(playerNames(get("/api/leagues/{league}/games/players", north)))
+                .contains("Ada").doesNotContain("Bo", "Cy");
+        assertThat(playerNames(get("/api/games/players").header("X-League", south)))
+                .contains("Bo", "Cy").doesNotContain("Ada");
+        assertThat(playerNames(get("/api/games/players"))).doesNotContain("Ada", "Bo", "Cy");
+
+        // The path wins over the header
+        assertThat(playerNames(get("/api/leagues/{league}/games/players", north).header("X-League", south)))
+                .contains("Ada").doesNotContain("Bo");
+        mockMvc.perform(get("/api/games/players").header("X-League", "Not A League"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/games/players"))
+                .andExpect(header().string("Vary", "X-League"));
+    }
+
+    @Test
+    void unknownLeagueIsNotFoundAndCreatesNothing() throws Exception {
+        mockMvc.perform(get("/api/games/players").header("X-League", "unknown"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/leagues/{league}/games/players", "unknown"))
+                .andExpect(status().isNotFound());
+
+        assertThat(leagueProperties.file("unknown", "")).doesNotExist();
+        assertThat(dataSource.isOpen("unknown")).isFalse();
+        assertThat(leagueProbe.opened()).doesNotContain("unknown");
+    }
+
+    @Test
+    void leagueIsMigratedOnFirstOpen() throws Exception {
+        String league = "migrated";
+        Path file = leagueProperties.file(league, "");
+        assertThat(file).doesNotExist();
+
+        createPlayer(post("/api/leagues/{league}/games/players", league), "Ada");
+        playerNames(get("/api/leagues/{league}/games/players", league));
+
+        assertThat(file).exists();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+             ResultSet rs = connection.createStatement().executeQuery(
+                     "SELECT COUNT(*) FROM databasechangelog WHERE id = '2026-10-17-player-stats'")) {
+            assertThat(rs.getInt(1)).isOne();
+        }
+        assertThat(leagueProbe.opened()).contains(league);
+    }
+
+    @Test
+    void idleLeagueIsClosedAndOpenedAgain() throws Exception {
+        String league = "idle";
+        GlobalPlayerDTO ada = createPlayer(post("/api/leagues/{league}/games/players", league), "Ada");
+        GlobalPlayerDTO bo = createPlayer(post("/api/leagues/{league}/games/players", league), "Bo");
+        createGame(league, ada, bo);
+        assertThat(sessionStats(league).size()).isOne();
+        assertThat(dataSource.isOpen(league)).isTrue();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (dataSource.isOpen(league) && System.nanoTime() < deadline) {
+            Thread.sleep(200);
+        }
+        assertThat(dataSource.isOpen(league)).isFalse();
+
+        // Opened again with its data, and with new scoped beans: the session cache starts empty
+        assertThat(playerNames(get("/api/leagues/{league}/games/players", league))).contains("Ada");
+        assertThat(dataSource.isOpen(league)).isTrue();
+        assertThat(leagueProbe.opened()).filteredOn(league::equals).hasSize(2);
+        assertThat(sessionStats(league).size()).isZero();
+    }
+
+    @Test
+    void leagueScopedBeansAreKeptPerLeague() throws Exception {
+        String north = "scoped-north";
+        String south = "scoped-south";
+        GlobalPlayerDTO ada = createPlayer(post("/api/leagues/{league}/games/players", north), "Ada");
+        GlobalPlayerDTO bo = createPlayer(post("/api/leagues/{league}/games/players", north), "Bo");
+        createGame(north, ada, bo);
+
+        // The session cache and the id blocks of one league are not those of another: both leagues start at id 1
+        assertThat(sessionStats(north).size()).isOne();
+        assertThat(sessionStats(south).size()).isZero();
+        GlobalPlayerDTO cy = createPlayer(post("/api/leagues/{league}/games/players", south), "Cy");
+        assertThat(cy.id()).isEqualTo(ada.id());
+    }
+
+    @Test
+    void asyncTasksRunOnTheLeagueOfTheirCaller() throws Exception {
+        String league = "async";
+        createPlayer(post("/api/leagues/{league}/games/players", league), "Ada");
+        for (int i = 0; i < 3; i++) {
+            createPlayer(post("/api/games/players"), "Main-" + UUID.randomUUID());
+        }
+        int leaguePlayers = playerNames(get("/api/leagues/{league}/games/players", league)).size();
+        assertThat(playerNames(get("/api/games/players"))).hasSizeGreaterThan(leaguePlayers);
+
+        List<String> probe = LeagueContext.call(league, leagueProbe::currentLeague).get(10, TimeUnit.SECONDS);
+        assertThat(probe.getFirst()).isEqualTo(league);
+        assertThat(probe.getLast()).isNotEqualTo(Thread.currentThread().getName());
+        assertThat(leagueProbe.currentLeague().get(10, TimeUnit.SECONDS).getFirst()).isEqualTo("null");
+
+        // The rebuild runs on the task executor and counts the global players of the league only
+        MvcResult rebuild = mockMvc.perform(post("/api/leagues/{league}/games/players/stats/rebuild", league))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(rebuild))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(leaguePlayers)));
+    }
+
+    private void createGame(String league, GlobalPlayerDTO first, GlobalPlayerDTO second) throws Exception {
+        mockMvc.perform(post("/api/leagues/{league}/games", league)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"name":"League game","players":[{"globalPlayerId":%d,"color":"red","order":1},\
+                                {"globalPlayerId":%d,"color":"blue","order":2}]}\
+                                """.formatted(first.id(), second.id())))
+                .andExpect(status().isOk());
+    }
+
+    private GlobalPlayerDTO createPlayer(MockHttpServletRequestBuilder request, String name) throws Exception {
+        String body = mockMvc.perform(request
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new GlobalPlayerDTO(null, name, name + "-" + UUID.randomUUID() + "@example.com"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, GlobalPlayerDTO.class);
+    }
+
+    private List<String> playerNames(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return List.of(objectMapper.readValue(body, GlobalPlayerDTO[].class)).stream()
+                .map(GlobalPlayerDTO::name)
+                .toList();
+    }
+
+    private GameSessionStatsDTO sessionStats(String league) throws Exception {
+        String body = mockMvc.perform(get("/api/leagues/{league}/games/sessions/stats", league))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, GameSessionStatsDTO.class);
+    }
+}
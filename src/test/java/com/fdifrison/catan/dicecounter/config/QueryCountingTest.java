@@ -0,0 +1,41 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The statements of a request are counted on the pooled connections, so a route that reads through
+ * {@code JdbcTemplate} alone is counted like one that goes through Hibernate.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/query-counting-test-${random.uuid}.db")
+@AutoConfigureMockMvc
+class QueryCountingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void countsTheStatementsOfJdbcTemplate() throws Exception {
+        mockMvc.perform(get("/api/games").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // The data version of the ETag, then the page
+        DistributionSummary statements = meterRegistry.get("jdbc.statements")
+                .tags("method", "GET", "uri", "/api/games")
+                .summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isGreaterThanOrEqualTo(2);
+    }
+}
@@ -0,0 +1,181 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import com.fdifrison.catan.dicecounter.GameFixtures;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The replica is refreshed by the tests themselves; the scheduled refreshes run once an hour. Each test plays a game
+ * before the snapshot and creates another one after it, both named after the test.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/snapshot-replica-test-${random.uuid}.db",
+        "app.replica.enabled=true",
+        "app.replica.interval=1h",
+        "app.replica.max-staleness=3s",
+        "app.leagues.enabled=true",
+        "app.leagues.names=replica-test",
+        "app.leagues.directory=target/snapshot-replica-test-${random.uuid}"})
+@AutoConfigureMockMvc
+@Import(GameFixtures.class)
+class SnapshotReplicaTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private GameFixtures fixtures;
+    @Autowired
+    private SnapshotReplica snapshotReplica;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String name;
+    private GlobalPlayerDTO red;
+
+    @BeforeEach
+    void playBeforeAndAfterTheSnapshot() {
+        name = UUID.randomUUID().toString();
+        red = fixtures.createGlobalPlayer("red");
+        GlobalPlayerDTO blue = fixtures.createGlobalPlayer("blue");
+        GameDTO before = fixtures.createGame(name + "-before", red, blue);
+        fixtures.endGame(before, 10, 7);
+
+        snapshotReplica.refresh();
+
+        fixtures.createGame(name + "-after", red, blue);
+    }
+
+    @Test
+    void refreshCopiesTheDatabase() throws Exception {
+        Path replica = SnapshotReplica.resolvePath(null, "jdbc:sqlite:" + jdbcTemplate.queryForObject(
+                "SELECT file FROM pragma_database_list WHERE name = 'main'", String.class));
+
+        assertThat(snapshotReplica.getFreshSnapshot()).isPresent();
+        assertThat(gameNames(replica)).contains(name + "-before").doesNotContain(name + "-after");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + replica);
+             ResultSet rs = connection.createStatement().executeQuery("PRAGMA journal_mode")) {
+            assertThat(rs.getString(1)).isEqualTo("delete");
+        }
+
+        snapshotReplica.refresh();
+
+        assertThat(gameNames(replica)).contains(name + "-before", name + "-after");
+    }
+
+    @Test
+    void replicaHandlersReadTheSnapshot() throws Exception {
+        List<MockHttpServletRequestBuilder> handlers = List.of(
+                get("/api/games").accept(MediaType.APPLICATION_NDJSON),
+                get("/api/games/export").accept(MediaType.APPLICATION_NDJSON),
+                get("/api/games/export").accept(MediaType.parseMediaType("text/csv")),
+                get("/api/games/leaderboard"),
+                get("/api/games/fairness"),
+                get("/api/games/players/{id}/stats", red.id()),
+                get("/api/games/players/{id}/fairness", red.id()));
+        for (MockHttpServletRequestBuilder handler : handlers) {
+            mockMvc.perform(handler).andExpect(header().exists(SnapshotReplica.AGE_HEADER));
+        }
+
+        assertThat(body(get("/api/games").accept(MediaType.APPLICATION_NDJSON)))
+                .contains(name + "-before").doesNotContain(name + "-after");
+        assertThat(body(get("/api/games/export").accept(MediaType.APPLICATION_NDJSON)))
+                .contains(name + "-before").doesNotContain(name + "-after");
+        // Not a replica handler
+        mockMvc.perform(get("/api/games").accept(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist(SnapshotReplica.AGE_HEADER));
+        assertThat(body(get("/api/games").accept(MediaType.APPLICATION_JSON))).contains(name + "-after");
+        // Nor is a league's database
+        mockMvc.perform(get("/api/games/leaderboard").header("X-League", "replica-test"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(SnapshotReplica.AGE_HEADER));
+    }
+
+    @Test
+    void writesWhileReadingTheSnapshotReachTheMainDatabase() {
+        SnapshotReplica.Snapshot snapshot = snapshotReplica.getFreshSnapshot().orElseThrow();
+        GlobalPlayerDTO late;
+        try (SnapshotReplica.Binding ignored = SnapshotReplica.read(snapshot)) {
+            // The replica's pool is query-only: the write would fail there
+            late = fixtures.createGlobalPlayer("late");
+            assertThat(readOnly(() -> countPlayers(late.id()))).isZero();
+            assertThat(SnapshotReplica.reading()).contains(snapshot);
+        }
+        assertThat(SnapshotReplica.reading()).isEmpty();
+        assertThat(readOnly(() -> countPlayers(late.id()))).isOne();
+    }
+
+    @Test
+    void staleSnapshotFallsBackToTheMainDatabase() throws Exception {
+        SnapshotReplica.Snapshot snapshot = snapshotReplica.getFreshSnapshot().orElseThrow();
+        Thread.sleep(Duration.ofSeconds(3).minus(snapshot.getAge()).plusMillis(200));
+
+        assertThat(snapshotReplica.getFreshSnapshot()).isEmpty();
+        mockMvc.perform(get("/api/games/leaderboard"))
+                .andExpect(header().doesNotExist(SnapshotReplica.AGE_HEADER));
+        assertThat(body(get("/api/games").accept(MediaType.APPLICATION_NDJSON))).contains(name + "-after");
+    }
+
+    private String body(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result.getResponse().getContentAsString();
+    }
+
+    private int countPlayers(Integer globalPlayerId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM global_player WHERE id = ?", Integer.class,
+                globalPlayerId);
+    }
+
+    private <T> T readOnly(Supplier<T> query) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> query.get());
+    }
+
+    private static List<String> gameNames(Path database) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+             PreparedStatement statement = connection.prepareStatement("SELECT name FROM game");
+             ResultSet rs = statement.executeQuery()) {
+            List<String> names = new ArrayList<>();
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+            return names;
+        }
+    }
+}
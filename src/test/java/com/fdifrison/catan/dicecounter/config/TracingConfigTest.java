@@ -0,0 +1,33 @@
+package com.fdifrison.catan.dicecounter.config;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TracingConfigTest {
+
+    @Test
+    void closingTheContextRemovesTheTurboFilter() {
+        List<TurboFilter> turboFilters = ((LoggerContext) LoggerFactory.getILoggerFactory()).getTurboFilterList();
+        List<TurboFilter> before = List.copyOf(turboFilters);
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            TestPropertyValues.of("app.tracing.sample-rate=10").applyTo(context);
+            context.register(TracingConfig.class);
+            context.refresh();
+
+            TurboFilter turboFilter = context.getBean(TraceSamplingFilter.SampledTraceTurboFilter.class);
+            assertThat(turboFilters).contains(turboFilter);
+            assertThat(turboFilter.isStarted()).isTrue();
+        }
+
+        assertThat(turboFilters).containsExactlyElementsOf(before);
+    }
+}
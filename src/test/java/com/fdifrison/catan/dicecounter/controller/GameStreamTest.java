@@ -0,0 +1,67 @@
+package com.fdifrison.catan.dicecounter.controller;
+
+import com.fdifrison.catan.dicecounter.dto.GameCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerCreateDTO;
+import com.fdifrison.catan.dicecounter.repository.GameCursor;
+import com.fdifrison.catan.dicecounter.service.GameService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The cursor of the game stream is checked before the response is committed: once the body streams, the status can
+ * no longer change.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/game-stream-test-${random.uuid}.db")
+@AutoConfigureMockMvc
+class GameStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private GameService gameService;
+
+    @Test
+    void badCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/api/games").accept(MediaType.APPLICATION_NDJSON).param("cursor", "not-a-cursor"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("Invalid cursor")));
+    }
+
+    @Test
+    void streamsTheGamesAfterTheCursor() throws Exception {
+        GlobalPlayerDTO red = gameService.createGlobalPlayer(new GlobalPlayerDTO(null, "red", "red@example.com"));
+        GlobalPlayerDTO blue = gameService.createGlobalPlayer(new GlobalPlayerDTO(null, "blue", "blue@example.com"));
+        for (String name : List.of("first", "second")) {
+            gameService.createGame(new GameCreateDTO(name, List.of(
+                    new PlayerCreateDTO(red.id(), "red", 1), new PlayerCreateDTO(blue.id(), "blue", 2))));
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/games").accept(MediaType.APPLICATION_NDJSON)
+                        .param("cursor", new GameCursor(Long.MAX_VALUE, Integer.MAX_VALUE).encode()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize(2);
+        assertThat(body.lines().toList().getFirst()).contains("\"second\"");
+    }
+}
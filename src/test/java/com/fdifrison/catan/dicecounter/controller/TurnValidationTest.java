@@ -0,0 +1,92 @@
+package com.fdifrison.catan.dicecounter.controller;
+
+import com.fdifrison.catan.dicecounter.dto.GameCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerCreateDTO;
+import com.fdifrison.catan.dicecounter.service.GameService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A roll outside 2..12 is rejected before it is stored: histograms, stats and fairness reject such a number, so a
+ * single one stored would break every later aggregation of the game and its players.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/turn-validation-test-${random.uuid}.db")
+@AutoConfigureMockMvc
+class TurnValidationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private GameDTO game;
+    private Integer playerId;
+
+    @BeforeEach
+    void createGame() {
+        String name = UUID.randomUUID().toString();
+        GlobalPlayerDTO red = gameService.createGlobalPlayer(new GlobalPlayerDTO(null, name + "-red", name + "-red@example.com"));
+        GlobalPlayerDTO blue = gameService.createGlobalPlayer(new GlobalPlayerDTO(null, name + "-blue", name + "-blue@example.com"));
+        game = gameService.createGame(new GameCreateDTO(name, List.of(
+                new PlayerCreateDTO(red.id(), "red", 1), new PlayerCreateDTO(blue.id(), "blue", 2))));
+        playerId = game.players().getFirst().id();
+    }
+
+    @Test
+    void turnWithRollOutOfRangeIsRejected() throws Exception {
+        for (int rollNumber : new int[]{1, 13, -7}) {
+            mockMvc.perform(post("/api/games/{id}/turns", game.id())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(turn(1, rollNumber)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("rollNumber")));
+        }
+        assertThat(rollCount()).isZero();
+
+        mockMvc.perform(post("/api/games/{id}/turns", game.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(turn(1, 12)))
+                .andExpect(status().isOk());
+        assertThat(rollCount()).isOne();
+    }
+
+    @Test
+    void batchWithOneRollOutOfRangeIsRejected() throws Exception {
+        mockMvc.perform(post("/api/games/{id}/turns/batch", game.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"turns\":[" + turn(1, 7) + "," + turn(2, 0) + "]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("turns[1].rollNumber")));
+        assertThat(rollCount()).isZero();
+    }
+
+    private String turn(int turnNumber, int rollNumber) {
+        return """
+                {"playerId":%d,"turnNumber":%d,"startTimestamp":"2024-01-01T10:00:00Z",\
+                "endTimestamp":"2024-01-01T10:01:00Z","rollNumber":%d}\
+                """.formatted(playerId, turnNumber, rollNumber);
+    }
+
+    private int rollCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM roll WHERE game_id = ?", Integer.class, game.id());
+    }
+}
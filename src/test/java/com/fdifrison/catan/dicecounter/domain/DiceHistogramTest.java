@@ -0,0 +1,109 @@
+package com.fdifrison.catan.dicecounter.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+class DiceHistogramTest {
+
+    /**
+     * 36 rolls in exactly the proportions of two fair dice.
+     */
+    private static DiceHistogram fair() {
+        DiceHistogram histogram = new DiceHistogram();
+        for (int number = DiceHistogram.MIN_NUMBER; number <= DiceHistogram.MAX_NUMBER; number++) {
+            histogram.add(number, 6 - Math.abs(number - 7));
+        }
+        return histogram;
+    }
+
+    @Test
+    void fairCountsHaveNoChiSquare() {
+        DiceHistogram histogram = fair();
+
+        assertThat(histogram.total()).isEqualTo(36);
+        assertThat(histogram.chiSquare()).isCloseTo(0, within(1e-9));
+        assertThat(histogram.chiSquarePValue()).isCloseTo(1, within(1e-9));
+        assertThat(histogram.mean()).isCloseTo(7, within(1e-9));
+        // Variance of the sum of two dice: 2 * 35/12
+        assertThat(histogram.variance()).isCloseTo(35.0 / 6, within(1e-9));
+        assertThat(histogram.luckyNumber()).isEqualTo(7);
+    }
+
+    @Test
+    void onlySevensAreFarFromFair() {
+        DiceHistogram histogram = new DiceHistogram();
+        histogram.add(7, 36);
+
+        // Every other number misses its expected count e, which adds e; 7 adds (36 - 6)^2 / 6
+        assertThat(histogram.chiSquare()).isCloseTo(30 + 150, within(1e-9));
+        assertThat(histogram.chiSquarePValue()).isLessThan(1e-30);
+        assertThat(histogram.variance()).isZero();
+    }
+
+    @Test
+    void pValueMatchesTheChiSquareTable() {
+        // Critical values of the chi-square distribution with 10 degrees of freedom
+        assertThat(DiceHistogram.pValue(0)).isEqualTo(1);
+        assertThat(DiceHistogram.pValue(9.342)).isCloseTo(0.5, within(1e-3));
+        assertThat(DiceHistogram.pValue(18.307)).isCloseTo(0.05, within(1e-4));
+        assertThat(DiceHistogram.pValue(23.209)).isCloseTo(0.01, within(1e-4));
+    }
+
+    @Test
+    void emptyHistogramHasNoStatistics() {
+        DiceHistogram histogram = new DiceHistogram();
+
+        assertThat(histogram.isEmpty()).isTrue();
+        assertThat(histogram.luckyNumber()).isNull();
+        assertThat(histogram.mean()).isNaN();
+        assertThat(histogram.variance()).isNaN();
+        assertThat(histogram.chiSquare()).isZero();
+        assertThat(histogram.chiSquarePValue()).isNull();
+        assertThat(histogram.toMap()).isEmpty();
+    }
+
+    @Test
+    void luckyNumberTakesTheLowestOnATie() {
+        DiceHistogram histogram = DiceHistogram.of(Map.of(9, 3, 4, 3, 11, 1));
+
+        assertThat(histogram.luckyNumber()).isEqualTo(4);
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        DiceHistogram histogram = fair();
+        histogram.add(12, 100_000);
+
+        byte[] bytes = histogram.toBytes();
+
+        assertThat(bytes).hasSize(DiceHistogram.BYTES).hasSize(44);
+        assertThat(DiceHistogram.fromBytes(bytes)).isEqualTo(histogram);
+        // Big-endian counts, 2 first
+        assertThat(bytes).startsWith(0, 0, 0, 1);
+        assertThat(DiceHistogram.fromBytes(new byte[DiceHistogram.BYTES]).isEmpty()).isTrue();
+    }
+
+    @Test
+    void rejectsBadBytesAndNumbers() {
+        assertThatIllegalArgumentException().isThrownBy(() -> DiceHistogram.fromBytes(new byte[43]));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DiceHistogram().add(1));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DiceHistogram().add(13));
+        assertThatIllegalArgumentException().isThrownBy(() -> DiceHistogram.of(Map.of(0, 1)));
+    }
+
+    @Test
+    void mapAndMergeKeepTheCounts() {
+        DiceHistogram histogram = DiceHistogram.of(Map.of(8, 2, 3, 1));
+        histogram.merge(DiceHistogram.of(Map.of(8, 1, 12, 4)));
+
+        assertThat(histogram.toMap()).containsExactly(Map.entry(3, 1), Map.entry(8, 3), Map.entry(12, 4));
+        assertThat(histogram.count(8)).isEqualTo(3);
+        assertThat(histogram.count(1)).isZero();
+        assertThat(histogram.total()).isEqualTo(8);
+    }
+}
@@ -0,0 +1,128 @@
+package com.fdifrison.catan.dicecounter.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class GameSegmentTest {
+
+    @Test
+    void decodesWhatWasEncoded() {
+        byte[] bytes = GameSegment.encode(42, new int[]{7, 3, 9}, new byte[]{6, 8, 12, 2, 7},
+                new int[]{0, 1, 2, 0, 1}, new int[]{0, 1, 2}, new long[]{61_000, 2_500, 180_250});
+
+        GameSegment segment = GameSegment.at(ByteBuffer.wrap(bytes), 0);
+
+        assertThat(segment.getGameId()).isEqualTo(42);
+        assertThat(segment.isRemoved()).isFalse();
+        assertThat(segment.getPlayerCount()).isEqualTo(3);
+        assertThat(segment.getGlobalPlayerId(2)).isEqualTo(9);
+        assertThat(segment.indexOf(3)).isEqualTo(1);
+        assertThat(segment.indexOf(4)).isEqualTo(-1);
+        assertThat(segment.getRollCount()).isEqualTo(5);
+        int[] numbers = new int[5];
+        int[] playerIndexes = new int[5];
+        for (int roll = 0; roll < 5; roll++) {
+            numbers[roll] = segment.getNumber(roll);
+            playerIndexes[roll] = segment.getRollPlayerIndex(roll);
+        }
+        assertThat(numbers).containsExactly(6, 8, 12, 2, 7);
+        assertThat(playerIndexes).containsExactly(0, 1, 2, 0, 1);
+        assertThat(segment.getTurnCount()).isEqualTo(3);
+        assertThat(segment.getTurnPlayerIndex(2)).isEqualTo(2);
+        List<Long> durations = new ArrayList<>();
+        List<Integer> turnPlayerIndexes = new ArrayList<>();
+        segment.forEachTurn((playerIndex, durationMillis) -> {
+            turnPlayerIndexes.add(playerIndex);
+            durations.add(durationMillis);
+        });
+        assertThat(turnPlayerIndexes).containsExactly(0, 1, 2);
+        assertThat(durations).containsExactly(61_000L, 2_500L, 180_250L);
+    }
+
+    @Test
+    void takesABytePerRollAndHalfAByteForItsPlayer() {
+        byte[] bytes = GameSegment.encode(1, new int[]{1, 2, 3, 4}, new byte[20], new int[20], new int[0],
+                new long[0]);
+
+        // Length, game id, player count, 4 player ids, roll count, 20 numbers, 10 bytes of player indexes, turn count
+        assertThat(bytes).hasSize(4 + 4 + 1 + 16 + 4 + 20 + 10 + 4);
+        assertThat(GameSegment.sizeAt(ByteBuffer.wrap(bytes), 0)).isEqualTo(bytes.length);
+    }
+
+    @Test
+    void deltaEncodesTheTurnDurations() {
+        long[] durations = new long[20];
+        for (int turn = 0; turn < durations.length; turn++) {
+            durations[turn] = 60_000 + (turn % 2) * 1_000;
+        }
+        byte[] bytes = GameSegment.encode(1, new int[]{1, 2, 3, 4}, new byte[0], new int[0], new int[20], durations);
+
+        // 10 bytes of player indexes, 3 bytes for the first duration, 2 bytes for each delta of a second
+        assertThat(bytes).hasSize(4 + 4 + 1 + 16 + 4 + 4 + 10 + 3 + 19 * 2);
+        List<Long> decoded = new ArrayList<>();
+        GameSegment.at(ByteBuffer.wrap(bytes), 0)
+                .forEachTurn((playerIndex, durationMillis) -> decoded.add(durationMillis));
+        assertThat(decoded).containsExactly(Arrays.stream(durations).boxed().toArray(Long[]::new));
+    }
+
+    @Test
+    void readsSegmentsAtTheirOffset() {
+        byte[] first = segment(1, new int[]{5}, new byte[]{4}, new int[]{0});
+        byte[] second = segment(2, new int[]{5, 6}, new byte[]{9, 10, 11}, new int[]{1, 0, 1});
+        ByteBuffer buffer = ByteBuffer.allocate(first.length + second.length).put(first).put(second);
+
+        GameSegment segment = GameSegment.at(buffer, GameSegment.sizeAt(buffer, 0));
+
+        assertThat(segment.getGameId()).isEqualTo(2);
+        assertThat(GameSegment.gameIdAt(buffer, first.length)).isEqualTo(2);
+        assertThat(segment.getNumber(2)).isEqualTo(11);
+        assertThat(segment.getRollPlayerIndex(0)).isEqualTo(1);
+    }
+
+    @Test
+    void aRemovedSegmentKeepsItsRolls() {
+        ByteBuffer buffer = ByteBuffer.wrap(segment(8, new int[]{5}, new byte[]{3}, new int[]{0}));
+        buffer.putInt(Integer.BYTES, GameSegment.REMOVED);
+
+        GameSegment segment = GameSegment.at(buffer, 0);
+
+        assertThat(segment.isRemoved()).isTrue();
+        assertThat(segment.getNumber(0)).isEqualTo(3);
+    }
+
+    @Test
+    void packsTheHighestPlayerIndex() {
+        byte[] bytes = GameSegment.encode(1, new int[GameSegment.MAX_PLAYERS], new byte[]{2, 3, 4},
+                new int[]{15, 0, 15}, new int[]{0, 15}, new long[]{1, 2});
+
+        GameSegment segment = GameSegment.at(ByteBuffer.wrap(bytes), 0);
+
+        assertThat(segment.getRollPlayerIndex(0)).isEqualTo(15);
+        assertThat(segment.getRollPlayerIndex(1)).isZero();
+        assertThat(segment.getRollPlayerIndex(2)).isEqualTo(15);
+        assertThat(segment.getTurnPlayerIndex(1)).isEqualTo(15);
+    }
+
+    @Test
+    void rejectsWhatDoesNotFit() {
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                segment(1, new int[GameSegment.MAX_PLAYERS + 1], new byte[0], new int[0]));
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                segment(1, new int[2], new byte[]{7}, new int[]{GameSegment.MAX_PLAYERS}));
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                segment(1, new int[2], new byte[]{7, 8}, new int[]{0}));
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                GameSegment.encode(1, new int[2], new byte[0], new int[0], new int[]{0, 1}, new long[]{1}));
+    }
+
+    private static byte[] segment(int gameId, int[] globalPlayerIds, byte[] numbers, int[] rollPlayerIndexes) {
+        return GameSegment.encode(gameId, globalPlayerIds, numbers, rollPlayerIndexes, new int[0], new long[0]);
+    }
+}
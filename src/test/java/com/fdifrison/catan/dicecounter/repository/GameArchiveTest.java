@@ -0,0 +1,87 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import com.fdifrison.catan.dicecounter.config.ArchiveProperties;
+import com.fdifrison.catan.dicecounter.config.DbProperties;
+import com.fdifrison.catan.dicecounter.config.LeagueProperties;
+import com.fdifrison.catan.dicecounter.domain.GameSegment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private GameArchive archive;
+
+    @BeforeEach
+    void openArchive() throws IOException {
+        archive = new GameArchive(new ArchiveProperties(true, directory.resolve("games.archive").toString(), 100),
+                new DbProperties("jdbc:sqlite::memory:", null, null, null), new LeagueProperties(false, null, null,
+                null, null));
+    }
+
+    @AfterEach
+    void closeArchive() throws IOException {
+        archive.close();
+    }
+
+    @Test
+    void readsTheSegmentsRecordedByTheTransaction() {
+        long first = archive.append(segment(10, 7));
+        long second = archive.append(segment(11, 8));
+        long third = archive.append(segment(12, 9));
+        archive.commit(archive.getSize());
+
+        // Game 11 was un-archived after the transaction listed its games: its segment is read all the same, with the
+        // game id the transaction recorded. Game 12 is not recorded by the transaction, its rows are read instead.
+        archive.markRemoved(second);
+        ArchivedGames games = new ArchivedGames(archive.getCommittedLength(),
+                List.of(new ArchivedGames.Entry(first, 10), new ArchivedGames.Entry(second, 11)).iterator());
+
+        List<String> read = new ArrayList<>();
+        archive.forEachGame(games, (segment, gameId) -> read.add(gameId + ":" + segment.getNumber(0)));
+
+        assertThat(read).containsExactly("10:7", "11:8");
+        assertThat(third).isGreaterThan(second);
+    }
+
+    @Test
+    void ignoresTheSegmentsPastTheLength() {
+        long first = archive.append(segment(10, 7));
+        archive.commit(archive.getSize());
+        long uncommitted = archive.append(segment(11, 8));
+        ArchivedGames games = new ArchivedGames(archive.getCommittedLength(),
+                List.of(new ArchivedGames.Entry(first, 10), new ArchivedGames.Entry(uncommitted, 11)).iterator());
+
+        List<Integer> read = new ArrayList<>();
+        archive.forEachGame(games, (segment, gameId) -> read.add(gameId));
+
+        assertThat(read).containsExactly(10);
+    }
+
+    @Test
+    void readsNothingWithoutRecordedGames() {
+        archive.append(segment(10, 7));
+        archive.commit(archive.getSize());
+
+        List<Integer> read = new ArrayList<>();
+        archive.forEachGame(new ArchivedGames(archive.getCommittedLength(), List.<ArchivedGames.Entry>of().iterator()),
+                (segment, gameId) -> read.add(gameId));
+
+        assertThat(read).isEmpty();
+    }
+
+    private static byte[] segment(int gameId, int number) {
+        return GameSegment.encode(gameId, new int[]{1, 2}, new byte[]{(byte) number}, new int[]{0}, new int[0], new long[0]);
+    }
+}
@@ -0,0 +1,47 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class GameCursorTest {
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void roundTrips() {
+        GameCursor cursor = new GameCursor(1_735_754_400_123L, 42);
+
+        assertThat(GameCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsTheExtremes() {
+        GameCursor negative = new GameCursor(-1, 0);
+        GameCursor maximal = new GameCursor(Long.MAX_VALUE, Integer.MAX_VALUE);
+
+        assertThat(GameCursor.decode(negative.encode())).isEqualTo(negative);
+        assertThat(GameCursor.decode(maximal.encode())).isEqualTo(maximal);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        assertThat(new GameCursor(Long.MAX_VALUE, Integer.MAX_VALUE).encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatIllegalArgumentException().isThrownBy(() -> GameCursor.decode("not a cursor!"))
+                .withMessage("Invalid cursor: not a cursor!");
+        assertThatIllegalArgumentException().isThrownBy(() -> GameCursor.decode(""));
+        assertThatIllegalArgumentException().isThrownBy(() -> GameCursor.decode(token("1735754400123")));
+        assertThatIllegalArgumentException().isThrownBy(() -> GameCursor.decode(token("1735754400123|x")));
+        assertThatIllegalArgumentException().isThrownBy(() -> GameCursor.decode(token("|42")));
+    }
+}
@@ -0,0 +1,45 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class LeaderboardCursorTest {
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void roundTrips() {
+        LeaderboardCursor cursor = new LeaderboardCursor(12, 340, 7, 25);
+
+        assertThat(LeaderboardCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsTheExtremes() {
+        LeaderboardCursor zero = new LeaderboardCursor(0, 0, 0, 0);
+        LeaderboardCursor maximal = new LeaderboardCursor(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                Integer.MAX_VALUE);
+
+        assertThat(LeaderboardCursor.decode(zero.encode())).isEqualTo(zero);
+        assertThat(LeaderboardCursor.decode(maximal.encode())).isEqualTo(maximal);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatIllegalArgumentException().isThrownBy(() -> LeaderboardCursor.decode("not a cursor!"))
+                .withMessage("Invalid cursor: not a cursor!");
+        assertThatIllegalArgumentException().isThrownBy(() -> LeaderboardCursor.decode(""));
+        assertThatIllegalArgumentException().isThrownBy(() -> LeaderboardCursor.decode(token("12|340|7")));
+        assertThatIllegalArgumentException().isThrownBy(() -> LeaderboardCursor.decode(token("12|340|7|")));
+        // A game cursor is not a leaderboard cursor
+        assertThatIllegalArgumentException().isThrownBy(
+                () -> LeaderboardCursor.decode(new GameCursor(1_735_754_400_123L, 42).encode()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import com.fdifrison.catan.dicecounter.GameFixtures;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.LeaderboardEntryDTO;
+import com.fdifrison.catan.dicecounter.service.GameService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The average points of the league table count only the games the player was scored in: a game still running adds to
+ * the games played but not to the average.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/leaderboard-test-${random.uuid}.db")
+@Import(GameFixtures.class)
+class LeaderboardTest {
+
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private GameFixtures fixtures;
+
+    @Test
+    void averagePointsIgnoreGamesWithoutPoints() {
+        GlobalPlayerDTO red = fixtures.createGlobalPlayer("red");
+        GlobalPlayerDTO blue = fixtures.createGlobalPlayer("blue");
+
+        GameDTO ended = fixtures.createGame("ended", red, blue);
+        fixtures.endGame(ended, 10, 6);
+        fixtures.createGame("running", red, blue);
+
+        List<LeaderboardEntryDTO> players = gameService.getLeaderboard(null, 10).players();
+        assertThat(players).extracting(LeaderboardEntryDTO::name).containsExactly(red.name(), blue.name());
+        assertThat(players).extracting(LeaderboardEntryDTO::gamesPlayed).containsExactly(2, 2);
+        assertThat(players).extracting(LeaderboardEntryDTO::averagePoints).containsExactly(10.0, 6.0);
+
+        GlobalPlayerDTO green = fixtures.createGlobalPlayer("green");
+        fixtures.createGame("first", green, red);
+        LeaderboardEntryDTO last = gameService.getLeaderboard(null, 10).players().getLast();
+        assertThat(last.name()).isEqualTo(green.name());
+        assertThat(last.averagePoints()).isNull();
+    }
+}
@@ -0,0 +1,192 @@
+package com.fdifrison.catan.dicecounter.repository;
+
+import com.fdifrison.catan.dicecounter.GameFixtures;
+import com.fdifrison.catan.dicecounter.domain.Game;
+import com.fdifrison.catan.dicecounter.domain.Player;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GamePageDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.LeaderboardPageDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnCreateDTO;
+import com.fdifrison.catan.dicecounter.service.DiceFairnessService;
+import com.fdifrison.catan.dicecounter.service.GameService;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Records the SQL issued by the hot read paths and fails if SQLite plans any of it as a full table scan.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/query-plan-test-${random.uuid}.db")
+@Import(GameFixtures.class)
+class QueryPlanTest {
+
+    // "SCAN t" is a full scan, "SCAN t USING [COVERING] INDEX ..." walks an index
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN \\w+$");
+
+    private static final Set<String> STATEMENTS = Collections.synchronizedSet(new LinkedHashSet<>());
+    private static volatile boolean recording;
+
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private DiceFairnessService diceFairnessService;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private PlayerRepository playerRepository;
+    @Autowired
+    private GameFixtures fixtures;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void hotQueriesUseIndexes() {
+        GlobalPlayerDTO red = fixtures.createGlobalPlayer("red");
+        GlobalPlayerDTO blue = fixtures.createGlobalPlayer("blue");
+        GameDTO game = fixtures.createGame("query plan", red, blue);
+        Integer playerId = game.players().getFirst().id();
+        gameService.recordTurn(game.id(), new TurnCreateDTO(playerId, 1, Instant.now(), Instant.now(), 8));
+        fixtures.endGame(game, 10, 7);
+
+        recording = true;
+        transactionTemplate.executeWithoutResult(status -> {
+            Game loaded = gameRepository.findById(game.id()).orElseThrow();
+            Hibernate.initialize(loaded.getPlayers());
+            Hibernate.initialize(loaded.getRolls());
+            Hibernate.initialize(loaded.getTurns());
+            Player player = playerRepository.findById(playerId).orElseThrow();
+            Hibernate.initialize(player.getTurns());
+            playerRepository.findByGameId(game.id());
+        });
+        gameService.getGameVersion(game.id());
+        gameService.getDataVersion();
+        GamePageDTO page = gameService.getGames(null, 1);
+        gameService.getGames(page.nextCursor(), 1);
+        gameService.getPlayerStats(red.id());
+        LeaderboardPageDTO leaderboard = gameService.getLeaderboard(null, 1);
+        gameService.getLeaderboard(leaderboard.nextCursor(), 1);
+        gameService.getTurnTimes(game.id());
+        diceFairnessService.getGameFairness(game.id());
+        diceFairnessService.getPlayerFairness(red.id());
+        gameService.rebuildPlayerStats().join();
+        recording = false;
+
+        List<String> fullScans = new ArrayList<>();
+        for (String sql : List.copyOf(STATEMENTS)) {
+            explain(sql).stream()
+                    .filter(step -> FULL_SCAN.matcher(step).matches())
+                    .forEach(step -> fullScans.add(step + " <- " + sql));
+        }
+        assertThat(STATEMENTS).isNotEmpty();
+        assertThat(fullScans).isEmpty();
+    }
+
+    private List<String> explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setInt(i, 1);
+                }
+                List<String> steps = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        steps.add(rs.getString("detail"));
+                    }
+                }
+                return steps;
+            }
+        });
+    }
+
+    /**
+     * Wraps the application data source so every statement, prepared or executed directly, from Hibernate or
+     * JdbcTemplate, is recorded.
+     */
+    @TestConfiguration
+    static class RecordingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!"dataSource".equals(beanName)) {
+                        return bean;
+                    }
+                    return proxy(DataSource.class, bean, (target, method, args) -> {
+                        Object result = method.invoke(target, args);
+                        return result instanceof Connection connection
+                                ? proxy(Connection.class, connection, QueryPlanTest::recordStatement)
+                                : result;
+                    });
+                }
+            };
+        }
+    }
+
+    private static Object recordStatement(Object connection, java.lang.reflect.Method method, Object[] args)
+            throws Throwable {
+        if (recording && method.getName().equals("prepareStatement")) {
+            STATEMENTS.add((String) args[0]);
+        }
+        Object result = method.invoke(connection, args);
+        return result instanceof Statement statement && method.getName().equals("createStatement")
+                ? proxy(Statement.class, statement, QueryPlanTest::recordExecution)
+                : result;
+    }
+
+    /**
+     * Records the SQL of {@code execute}, {@code executeQuery}, {@code executeUpdate} and {@code addBatch}.
+     */
+    private static Object recordExecution(Object statement, java.lang.reflect.Method method, Object[] args)
+            throws Throwable {
+        if (recording && (method.getName().startsWith("execute") || method.getName().equals("addBatch"))
+                && args != null && args[0] instanceof String sql) {
+            STATEMENTS.add(sql);
+        }
+        return method.invoke(statement, args);
+    }
+
+    private interface Invocation {
+        Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Invocation invocation) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return invocation.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
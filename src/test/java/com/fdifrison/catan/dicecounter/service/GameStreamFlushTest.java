@@ -0,0 +1,46 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.GameFixtures;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The NDJSON game stream is flushed once per page of games and at the end, not once per line.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/game-stream-flush-test-${random.uuid}.db")
+@Import(GameFixtures.class)
+class GameStreamFlushTest {
+
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private GameFixtures fixtures;
+
+    @Test
+    void flushesOncePerPageOfGames() throws Exception {
+        GlobalPlayerDTO red = fixtures.createGlobalPlayer("red");
+        for (int game = 0; game < 501; game++) {
+            fixtures.createGame("game-" + game, red);
+        }
+        int[] flushes = {0};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+
+        gameService.streamGames(null, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(501);
+        assertThat(flushes[0]).isEqualTo(2);
+    }
+}
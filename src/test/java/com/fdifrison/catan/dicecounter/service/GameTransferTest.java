@@ -0,0 +1,170 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdifrison.catan.dicecounter.GameFixtures;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GameImportResultDTO;
+import com.fdifrison.catan.dicecounter.dto.GameTransferRecordDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnCreateDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * An export imported into the database it came from adds a copy of every game under new ids, and the player stats
+ * count the copies.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/game-transfer-test-${random.uuid}.db")
+@Import(GameFixtures.class)
+class GameTransferTest {
+
+    @Autowired
+    private GameTransferService gameTransferService;
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private GameFixtures fixtures;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @EnumSource(TransferFormat.class)
+    void importsWhatWasExported(TransferFormat format) throws IOException {
+        GlobalPlayerDTO red = fixtures.createGlobalPlayer("red");
+        GlobalPlayerDTO blue = fixtures.createGlobalPlayer("blue");
+        GameDTO ended = fixtures.createGame("ended", red, blue);
+        recordTurns(ended, 4);
+        fixtures.endGame(ended, 10, 6);
+        recordTurns(fixtures.createGame("running", blue, red), 3);
+        int gamesPlayed = gamesPlayed(red);
+
+        byte[] exported = export(format);
+        GameImportResultDTO result = gameTransferService.importGames(format, new ByteArrayInputStream(exported));
+
+        List<GameTransferRecordDTO> before = games(read(format, exported));
+        List<GameTransferRecordDTO> after = games(read(format, export(format)));
+        assertThat(result.globalPlayersCreated()).isZero();
+        assertThat(result.games()).isEqualTo((int) before.stream().filter(this::isGame).count());
+        assertThat(after).hasSize(2 * before.size());
+        assertThat(withoutIds(after.subList(before.size(), after.size()))).isEqualTo(withoutIds(before));
+        assertThat(gamesPlayed(red)).isEqualTo(2 * gamesPlayed);
+    }
+
+    @Test
+    void failedImportCountsTheCommittedGames() throws IOException {
+        GlobalPlayerDTO red = fixtures.createGlobalPlayer("red");
+        List<GameTransferRecordDTO> records = new ArrayList<>();
+        records.add(GameTransferRecordDTO.globalPlayer(1, red.name(), red.email()));
+        // One more game than a transaction holds, the last one malformed
+        for (int game = 1; game <= 1001; game++) {
+            records.add(GameTransferRecordDTO.game(game, "imported-" + game, 1_735_754_400_000L,
+                    1_735_758_000_000L));
+            records.add(GameTransferRecordDTO.player(game, game == 1001 ? 2 : 1, 1, "red", 1, 10));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransferFormat.RecordWriter writer = TransferFormat.NDJSON.writer(out, objectMapper);
+        for (GameTransferRecordDTO record : records) {
+            writer.write(record);
+        }
+        writer.flush();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> gameTransferService.importGames(TransferFormat.NDJSON,
+                        new ByteArrayInputStream(out.toByteArray())))
+                .withMessageContaining("unknown global player: 2")
+                .withMessageContaining("1000 games imported before the error");
+        assertThat(gamesPlayed(red)).isEqualTo(1000);
+    }
+
+    private byte[] export(TransferFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        gameTransferService.exportGames(format, out);
+        return out.toByteArray();
+    }
+
+    private List<GameTransferRecordDTO> read(TransferFormat format, byte[] content) throws IOException {
+        TransferFormat.RecordReader reader = format.reader(new ByteArrayInputStream(content), objectMapper);
+        List<GameTransferRecordDTO> records = new ArrayList<>();
+        for (GameTransferRecordDTO record = reader.read(); record != null; record = reader.read()) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * The records from the first game on, without the global players.
+     */
+    private List<GameTransferRecordDTO> games(List<GameTransferRecordDTO> records) {
+        int first = 0;
+        while (first < records.size() && !isGame(records.get(first))) {
+            first++;
+        }
+        return records.subList(first, records.size());
+    }
+
+    private boolean isGame(GameTransferRecordDTO record) {
+        return GameTransferRecordDTO.GAME.equals(record.record());
+    }
+
+    /**
+     * Replaces the ids of every game, player and turn, and the references to them, by their position in the game, so
+     * a copy imported under new ids compares equal to its original. Global player ids are kept: the import matches
+     * them by email.
+     */
+    private List<GameTransferRecordDTO> withoutIds(List<GameTransferRecordDTO> records) {
+        List<GameTransferRecordDTO> copies = new ArrayList<>();
+        Map<Integer, Integer> playerIds = new HashMap<>();
+        Map<Integer, Integer> turnIds = new HashMap<>();
+        for (GameTransferRecordDTO record : records) {
+            Integer id = switch (record.record()) {
+                case GameTransferRecordDTO.GAME -> {
+                    playerIds.clear();
+                    turnIds.clear();
+                    yield null;
+                }
+                case GameTransferRecordDTO.PLAYER -> playerIds.computeIfAbsent(record.id(), key -> playerIds.size());
+                case GameTransferRecordDTO.TURN -> turnIds.computeIfAbsent(record.id(), key -> turnIds.size());
+                default -> null;
+            };
+            copies.add(new GameTransferRecordDTO(record.record(), id, record.name(), record.email(),
+                    record.startTimestamp(), record.endTimestamp(), record.globalPlayerId(),
+                    record.playerId() == null ? null : playerIds.get(record.playerId()),
+                    record.turnId() == null ? null : turnIds.get(record.turnId()), record.order(), record.color(),
+                    record.rank(), record.points(), record.turnNumber(), record.number(), record.playerIndex()));
+        }
+        return copies;
+    }
+
+    private int gamesPlayed(GlobalPlayerDTO globalPlayer) {
+        return jdbcTemplate.queryForObject("SELECT games_played FROM player_stats WHERE global_player_id = ?",
+                Integer.class, globalPlayer.id());
+    }
+
+    private void recordTurns(GameDTO game, int count) {
+        for (int turnNumber = 1; turnNumber <= count; turnNumber++) {
+            Instant start = Instant.parse("2024-01-01T10:00:00Z").plusSeconds(100L * turnNumber);
+            gameService.recordTurn(game.id(), new TurnCreateDTO(
+                    game.players().get(turnNumber % game.players().size()).id(), turnNumber, start,
+                    start.plusSeconds(30 + turnNumber), 2 + (turnNumber * 5) % 11));
+        }
+    }
+}
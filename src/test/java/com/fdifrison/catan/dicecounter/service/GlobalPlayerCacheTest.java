@@ -0,0 +1,134 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.domain.GlobalPlayer;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.mapper.GlobalPlayerMapper;
+import com.fdifrison.catan.dicecounter.repository.GlobalPlayerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GlobalPlayerCacheTest {
+
+    private final List<GlobalPlayer> table = new ArrayList<>();
+    private final GlobalPlayerRepository globalPlayerRepository = mock(GlobalPlayerRepository.class);
+    private final GlobalPlayerCache cache = new GlobalPlayerCache(globalPlayerRepository,
+            Mappers.getMapper(GlobalPlayerMapper.class));
+
+    @BeforeEach
+    void stubTheTable() {
+        insert(1, "Pisco");
+        insert(2, "Mich");
+        insert(3, "Berna");
+        when(globalPlayerRepository.findAll()).thenAnswer(invocation -> List.copyOf(table));
+        when(globalPlayerRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Integer> ids = new ArrayList<>();
+            invocation.<Iterable<Integer>>getArgument(0).forEach(ids::add);
+            return table.stream().filter(player -> ids.contains(player.getId())).toList();
+        });
+    }
+
+    private void insert(int id, String name) {
+        GlobalPlayer player = new GlobalPlayer();
+        player.setId(id);
+        player.setName(name);
+        player.setEmail(name.toLowerCase() + "@example.com");
+        table.add(player);
+    }
+
+    private static List<Integer> ids(List<GlobalPlayerDTO> players) {
+        return players.stream().map(GlobalPlayerDTO::id).toList();
+    }
+
+    @Test
+    void loadsTheTableOnce() {
+        assertThat(ids(cache.getAll())).containsExactly(1, 2, 3);
+        assertThat(ids(cache.getAll())).containsExactly(1, 2, 3);
+        assertThat(cache.get(2)).map(GlobalPlayerDTO::name).contains("Mich");
+
+        verify(globalPlayerRepository, times(1)).findAll();
+        verify(globalPlayerRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void loadsOnlyTheMissingPlayers() {
+        assertThat(cache.getAll(List.of(1, 1))).containsOnlyKeys(1);
+        assertThat(cache.getAll(List.of(1, 2, 3, 2))).containsOnlyKeys(1, 2, 3);
+        assertThat(cache.getAll(List.of(3, 1))).containsOnlyKeys(3, 1);
+
+        verify(globalPlayerRepository).findAllById(List.of(1));
+        verify(globalPlayerRepository).findAllById(List.of(2, 3));
+        verify(globalPlayerRepository, times(2)).findAllById(anyIterable());
+    }
+
+    @Test
+    void leavesUnknownPlayersOut() {
+        assertThat(cache.getAll(List.of(1, 99))).containsOnlyKeys(1);
+        assertThat(cache.get(99)).isEmpty();
+    }
+
+    @Test
+    void playersLoadedOneByOneDoNotCompleteTheCache() {
+        cache.get(1);
+
+        assertThat(ids(cache.getAll())).containsExactly(1, 2, 3);
+        verify(globalPlayerRepository).findAll();
+    }
+
+    @Test
+    void invalidateOutsideOfATransactionReloadsRightAway() {
+        cache.getAll();
+        insert(4, "Giova");
+
+        cache.invalidate();
+
+        assertThat(ids(cache.getAll())).containsExactly(1, 2, 3, 4);
+        verify(globalPlayerRepository, times(2)).findAll();
+    }
+
+    @Test
+    void invalidateInATransactionReloadsAfterTheCommit() {
+        cache.getAll();
+        insert(4, "Giova");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate();
+            assertThat(ids(cache.getAll())).containsExactly(1, 2, 3);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(ids(cache.getAll())).containsExactly(1, 2, 3, 4);
+        verify(globalPlayerRepository, times(2)).findAll();
+    }
+
+    @Test
+    void playerCreatedDuringALoadKeepsTheCacheIncomplete() {
+        when(globalPlayerRepository.findAll()).thenAnswer(invocation -> {
+            List<GlobalPlayer> loaded = List.copyOf(table);
+            insert(4, "Giova");
+            cache.invalidate();
+            return loaded;
+        }).thenAnswer(invocation -> List.copyOf(table));
+
+        assertThat(ids(cache.getAll())).containsExactly(1, 2, 3);
+        assertThat(ids(cache.getAll())).containsExactly(1, 2, 3, 4);
+        assertThat(ids(cache.getAll())).containsExactly(1, 2, 3, 4);
+        verify(globalPlayerRepository, times(2)).findAll();
+    }
+}
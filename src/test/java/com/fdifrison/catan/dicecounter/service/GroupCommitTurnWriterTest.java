@@ -0,0 +1,66 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.GameFixtures;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Turns submitted together are committed in one batch, by a writer whose commits are synced.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/group-commit-test-${random.uuid}.db",
+        "app.group-commit.enabled=true",
+        "app.group-commit.max-delay=200ms"})
+@Import(GameFixtures.class)
+class GroupCommitTurnWriterTest {
+
+    private static final int FULL = 2;  // PRAGMA synchronous
+
+    @Autowired
+    private GroupCommitTurnWriter groupCommitTurnWriter;
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private GameFixtures fixtures;
+    @Autowired
+    @Qualifier("writerDataSource")
+    private HikariDataSource writerDataSource;
+
+    @Test
+    void writerSyncsEveryCommit() {
+        assertThat(new JdbcTemplate(writerDataSource).queryForObject("PRAGMA synchronous", Integer.class))
+                .isEqualTo(FULL);
+    }
+
+    @Test
+    void submittedTurnsCompleteOnceCommitted() throws Exception {
+        GameDTO game = fixtures.createGame("group commit", fixtures.createGlobalPlayer("red"),
+                fixtures.createGlobalPlayer("blue"));
+
+        List<CompletableFuture<TurnDTO>> turns = new ArrayList<>();
+        for (int turnNumber = 1; turnNumber <= 10; turnNumber++) {
+            Integer playerId = game.players().get((turnNumber - 1) % 2).id();
+            turns.add(groupCommitTurnWriter.submit(game.id(),
+                    new TurnCreateDTO(playerId, turnNumber, Instant.now(), Instant.now(), 8)));
+        }
+        CompletableFuture.allOf(turns.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(gameService.getGameById(game.id()).orElseThrow().turns()).hasSize(10);
+    }
+}
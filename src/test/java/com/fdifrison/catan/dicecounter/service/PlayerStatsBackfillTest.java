@@ -0,0 +1,151 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.GameFixtures;
+import com.fdifrison.catan.dicecounter.dto.EndGameDTO;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.PlayerEndDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnCreateDTO;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The aggregate maintained by the write paths, the one recomputed by {@link PlayerStatsService#rebuildAll()} and the
+ * one the backfill changeset computes for a database that predates {@code player_stats} are the same, whether the
+ * games are archived or not.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/player-stats-backfill-test-${random.uuid}.db")
+@Import(GameFixtures.class)
+class PlayerStatsBackfillTest {
+
+    private static final String STATS = """
+            SELECT global_player_id, games_played, total_points, scored_games, wins, ranked_games, rank_sum,
+                   turn_count, turn_seconds_sum, turn_seconds_min, turn_seconds_max
+            FROM player_stats WHERE games_played > 0 ORDER BY global_player_id
+            """;
+    private static final String ROLLS = """
+            SELECT global_player_id, number, count FROM player_stats_roll ORDER BY global_player_id, number
+            """;
+
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private PlayerStatsService playerStatsService;
+    @Autowired
+    private GameFixtures fixtures;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    @Qualifier("writerDataSource")
+    private DataSource writerDataSource;
+    @Autowired
+    private ResourceLoader resourceLoader;
+    @Value("${spring.liquibase.change-log}")
+    private String changeLog;
+
+    private List<Map<String, Object>> stats;
+    private List<Map<String, Object>> rolls;
+
+    @BeforeEach
+    void playGames() {
+        GlobalPlayerDTO red = fixtures.createGlobalPlayer("red");
+        GlobalPlayerDTO blue = fixtures.createGlobalPlayer("blue");
+        GlobalPlayerDTO green = fixtures.createGlobalPlayer("green");
+
+        // Ended, then corrected with a late turn and a second end
+        GameDTO first = fixtures.createGame("first", red, blue, green);
+        recordTurns(first, 9);
+        fixtures.endGame(first, 10, 7, 4);
+        recordTurns(first, 1);
+        fixtures.endGame(first, 10, 8, 4);
+        // Ended, without every player scored
+        GameDTO second = fixtures.createGame("second", blue, green);
+        recordTurns(second, 6);
+        gameService.endGame(second.id(), new EndGameDTO(List.of(
+                new PlayerEndDTO(second.players().get(0).id(), 1, 10))));
+        // Running
+        recordTurns(fixtures.createGame("third", green, red), 5);
+
+        stats = jdbcTemplate.queryForList(STATS);
+        rolls = jdbcTemplate.queryForList(ROLLS);
+        assertThat(stats).extracting(row -> row.get("global_player_id"))
+                .contains(red.id(), blue.id(), green.id());
+    }
+
+    @Test
+    void rebuildMatchesTheMaintainedAggregate() {
+        playerStatsService.rebuildAll();
+
+        assertThat(jdbcTemplate.queryForList(STATS)).isEqualTo(stats);
+        assertThat(jdbcTemplate.queryForList(ROLLS)).isEqualTo(rolls);
+    }
+
+    @Test
+    void rebuildReadsTheTurnTimesOfArchivedGamesFromTheArchive() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (unarchivedEndedGames() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(unarchivedEndedGames()).isZero();
+        // The turn rows of the archived games no longer have a duration: only the archive has it
+        jdbcTemplate.update("""
+                UPDATE turn SET end_timestamp = start_timestamp
+                WHERE game_id IN (SELECT id FROM game WHERE archive_offset IS NOT NULL)
+                """);
+
+        playerStatsService.rebuildAll();
+
+        assertThat(jdbcTemplate.queryForList(STATS)).isEqualTo(stats);
+        assertThat(jdbcTemplate.queryForList(ROLLS)).isEqualTo(rolls);
+    }
+
+    @Test
+    void backfillMatchesTheMaintainedAggregate() throws Exception {
+        // A database migrated before the aggregate existed: history but no stats
+        jdbcTemplate.update("DELETE FROM player_stats_roll");
+        jdbcTemplate.update("DELETE FROM player_stats");
+        jdbcTemplate.update("DELETE FROM databasechangelog WHERE id = '2026-10-18-player-stats-backfill'");
+
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(writerDataSource);
+        liquibase.setChangeLog(changeLog);
+        liquibase.setResourceLoader(resourceLoader);
+        liquibase.afterPropertiesSet();
+
+        assertThat(jdbcTemplate.queryForList(STATS)).isEqualTo(stats);
+        assertThat(jdbcTemplate.queryForList(ROLLS)).isEqualTo(rolls);
+    }
+
+    private int unarchivedEndedGames() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM game WHERE end_timestamp IS NOT NULL AND archive_offset IS NULL", Integer.class);
+    }
+
+    private void recordTurns(GameDTO game, int count) {
+        int turnNumber = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM turn WHERE game_id = ?", Integer.class,
+                game.id());
+        for (int i = 0; i < count; i++) {
+            turnNumber++;
+            Instant start = Instant.parse("2024-01-01T10:00:00Z").plusSeconds(100L * turnNumber);
+            gameService.recordTurn(game.id(), new TurnCreateDTO(
+                    game.players().get(turnNumber % game.players().size()).id(), turnNumber, start,
+                    start.plusMillis(15_000 + 7_321L * turnNumber), 2 + (turnNumber * 5) % 11));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.GameFixtures;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.GlobalPlayerDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnCreateDTO;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The flight recorder events of the write paths count the rows they wrote and end once their transaction committed.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/service-operation-event-test-${random.uuid}.db")
+@Import(GameFixtures.class)
+class ServiceOperationEventTest {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private GameFixtures fixtures;
+
+    @Test
+    void recordsTheRowsWrittenAfterTheCommit() throws Exception {
+        GlobalPlayerDTO red = fixtures.createGlobalPlayer("red");
+        GlobalPlayerDTO blue = fixtures.createGlobalPlayer("blue");
+
+        Path file = directory.resolve("operations.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.fdifrison.catan.ServiceOperation");
+            recording.start();
+            GameDTO game = fixtures.createGame("recorded", red, blue);
+            Instant start = Instant.parse("2024-01-01T10:00:00Z");
+            gameService.recordTurn(game.id(), new TurnCreateDTO(game.players().get(0).id(), 1, start,
+                    start.plusSeconds(30), 8));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        // The game, its 2 players, their 2 stats rows and the data version
+        assertThat(event(events, "createGame").getInt("rowsWritten")).isEqualTo(6);
+        // The game and data versions, the turn, its roll, the player's stats and roll distribution
+        assertThat(event(events, "recordTurn").getInt("rowsWritten")).isEqualTo(6);
+        assertThat(events).allMatch(event -> event.getBoolean("committed"));
+    }
+
+    private static RecordedEvent event(List<RecordedEvent> events, String operation) {
+        return events.stream()
+                .filter(event -> operation.equals(event.getString("operation")))
+                .findFirst()
+                .orElseThrow();
+    }
+}
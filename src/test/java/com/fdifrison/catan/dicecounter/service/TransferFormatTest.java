@@ -0,0 +1,131 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdifrison.catan.dicecounter.dto.GameTransferRecordDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class TransferFormatTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final List<GameTransferRecordDTO> RECORDS = List.of(
+            GameTransferRecordDTO.globalPlayer(1, "Pisco", "pisco@example.com"),
+            GameTransferRecordDTO.globalPlayer(2, "O'Hara, \"Mich\"\nthe second", "mich@example.com"),
+            GameTransferRecordDTO.game(10, "Friday, à la carte", 1_735_754_400_123L, null),
+            GameTransferRecordDTO.player(20, 1, 1, "red", 1, 10),
+            GameTransferRecordDTO.player(21, 2, 2, "blue", null, null),
+            GameTransferRecordDTO.turn(30, 20, 1, 1_735_754_400_123L, 1_735_754_460_456L),
+            GameTransferRecordDTO.roll(40, 30, 8, 0));
+
+    private static byte[] write(TransferFormat format, List<GameTransferRecordDTO> records) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransferFormat.RecordWriter writer = format.writer(out, OBJECT_MAPPER);
+        for (GameTransferRecordDTO record : records) {
+            writer.write(record);
+        }
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private static List<GameTransferRecordDTO> read(TransferFormat format, String content) throws IOException {
+        TransferFormat.RecordReader reader = format.reader(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), OBJECT_MAPPER);
+        List<GameTransferRecordDTO> records = new ArrayList<>();
+        for (GameTransferRecordDTO record = reader.read(); record != null; record = reader.read()) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferFormat.class)
+    void roundTripsEveryRecordType(TransferFormat format) throws IOException {
+        String content = new String(write(format, RECORDS), StandardCharsets.UTF_8);
+
+        assertThat(read(format, content)).isEqualTo(RECORDS);
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferFormat.class)
+    void readsNothingFromAnEmptyStream(TransferFormat format) throws IOException {
+        assertThat(read(format, "")).isEmpty();
+    }
+
+    @Test
+    void ndjsonIsOneObjectPerLineWithoutNulls() throws IOException {
+        String content = new String(write(TransferFormat.NDJSON, List.of(RECORDS.get(0), RECORDS.get(6))),
+                StandardCharsets.UTF_8);
+
+        assertThat(content).isEqualTo("""
+                {"record":"global_player","id":1,"name":"Pisco","email":"pisco@example.com"}
+                {"record":"roll","id":40,"turnId":30,"number":8,"playerIndex":0}
+                """);
+    }
+
+    @Test
+    void csvQuotesOnlyTheFieldsThatNeedIt() throws IOException {
+        String content = new String(write(TransferFormat.CSV, RECORDS.subList(0, 5)), StandardCharsets.UTF_8);
+
+        assertThat(content).isEqualTo("""
+                global_player,1,Pisco,pisco@example.com
+                global_player,2,"O'Hara, ""Mich""
+                the second",mich@example.com
+                game,10,"Friday, à la carte",1735754400123,
+                player,20,1,1,red,1,10
+                player,21,2,2,blue,,
+                """);
+    }
+
+    @Test
+    void csvSkipsBlankLinesAndCarriageReturns() throws IOException {
+        assertThat(read(TransferFormat.CSV, "\r\nroll,40,30,8,0\r\n\n")).containsExactly(RECORDS.get(6));
+    }
+
+    @Test
+    void csvRejectsMalformedRows() {
+        assertThatIllegalArgumentException().isThrownBy(() -> read(TransferFormat.CSV, "roll,40,30,8,0\ndice,1\n"))
+                .withMessage("Line 2: unknown record type: dice");
+        assertThatIllegalArgumentException().isThrownBy(() -> read(TransferFormat.CSV, "roll,40,30,8\n"))
+                .withMessage("Line 1: expected 4 columns for roll, got 3");
+        assertThatIllegalArgumentException().isThrownBy(() -> read(TransferFormat.CSV, "roll,40,30,eight,0\n"))
+                .withMessage("Line 1: not a number: eight");
+        assertThatIllegalArgumentException().isThrownBy(() -> read(TransferFormat.CSV, "game,10,\"Friday,1,2"))
+                .withMessage("Line 1: unterminated quoted field");
+    }
+
+    @Test
+    void csvCountsTheLinesOfQuotedLineBreaks() {
+        String content = "global_player,2,\"Mich\nthe second\",mich@example.com\nroll,x\n";
+
+        assertThatIllegalArgumentException().isThrownBy(() -> read(TransferFormat.CSV, content))
+                .withMessage("Line 3: expected 4 columns for roll, got 1");
+    }
+
+    @Test
+    void ndjsonRejectsMalformedLines() {
+        String content = "{\"record\":\"roll\",\"id\":40}\n{\"record\":\"roll\",\"id\":forty}\n";
+
+        assertThatIllegalArgumentException().isThrownBy(() -> read(TransferFormat.NDJSON, content))
+                .withMessageStartingWith("Line 2: ");
+    }
+
+    @Test
+    void formatOfFileName() {
+        assertThat(TransferFormat.ofFileName("games.csv")).isEqualTo(TransferFormat.CSV);
+        assertThat(TransferFormat.ofFileName("GAMES.CSV")).isEqualTo(TransferFormat.CSV);
+        assertThat(TransferFormat.ofFileName("games.ndjson")).isEqualTo(TransferFormat.NDJSON);
+        assertThat(TransferFormat.ofFileName("games")).isEqualTo(TransferFormat.NDJSON);
+    }
+}
@@ -0,0 +1,83 @@
+package com.fdifrison.catan.dicecounter.service;
+
+import com.fdifrison.catan.dicecounter.GameFixtures;
+import com.fdifrison.catan.dicecounter.dto.GameDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnBatchCreateDTO;
+import com.fdifrison.catan.dicecounter.dto.TurnCreateDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * A turn that found the session of its game in the cache just before a concurrent {@code deleteGame} committed must
+ * not write rows of the deleted game. The delete is simulated behind the cache's back, as the cached session is what
+ * the racing turn would have seen.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/turn-of-deleted-game-test-${random.uuid}.db")
+@Import(GameFixtures.class)
+class TurnOfDeletedGameTest {
+
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private GameFixtures fixtures;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private GameDTO game;
+    private Integer playerId;
+
+    @BeforeEach
+    void createGameAndCacheItsSession() {
+        game = fixtures.createGame("deleted", fixtures.createGlobalPlayer("red"), fixtures.createGlobalPlayer("blue"));
+        playerId = game.players().getFirst().id();
+        gameService.recordTurn(game.id(), turn(1));
+
+        for (String table : List.of("roll", "turn", "player")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE game_id = ?", game.id());
+        }
+        jdbcTemplate.update("DELETE FROM game WHERE id = ?", game.id());
+    }
+
+    @Test
+    void turnOfDeletedGameIsRejected() {
+        int sessions = gameService.getSessionStats().size();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> gameService.recordTurn(game.id(), turn(2)))
+                .withMessage("Game not found: " + game.id());
+
+        assertThat(rowCount("turn")).isZero();
+        assertThat(rowCount("roll")).isZero();
+        assertThat(gameService.getSessionStats().size()).isEqualTo(sessions - 1);
+    }
+
+    @Test
+    void batchOfDeletedGameIsRejected() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> gameService.recordTurns(game.id(), new TurnBatchCreateDTO(List.of(turn(2), turn(3)))))
+                .withMessage("Game not found: " + game.id());
+
+        assertThat(rowCount("turn")).isZero();
+        assertThat(rowCount("roll")).isZero();
+    }
+
+    private TurnCreateDTO turn(int turnNumber) {
+        Instant start = Instant.parse("2024-01-01T10:00:00Z").plusSeconds(60L * turnNumber);
+        return new TurnCreateDTO(playerId, turnNumber, start, start.plusSeconds(30), 8);
+    }
+
+    private int rowCount(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE game_id = ?", Integer.class,
+                game.id());
+    }
+}